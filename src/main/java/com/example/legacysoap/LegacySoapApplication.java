@@ -2,10 +2,16 @@ package com.example.legacysoap;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class LegacySoapApplication {
     public static void main(String[] args) {
-        SpringApplication.run(LegacySoapApplication.class, args);
+        ConfigurableApplicationContext context = SpringApplication.run(LegacySoapApplication.class, args);
+        if (context.getEnvironment().getProperty(StartupTrainingRun.PROPERTY, Boolean.class, false)) {
+            StartupTrainingRun.runAndExit(context);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.example.legacysoap;
+
+import com.example.legacysoap.config.SoapValidationProperties;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Validates SOAP payloads against a schema that is compiled once.
+ * The compiled Schema is thread-safe and shared; Validator instances are not,
+ * so each thread keeps its own and resets it between requests instead of creating one per request.
+ * Validation consumes the payload Source as an event stream and never builds a tree of its own.
+ */
+public class PayloadSchemaValidator {
+
+    private final Schema schema;
+    private final SoapValidationProperties.Mode mode;
+    private final int samplePercent;
+    private final ThreadLocal<Validator> validators;
+
+    public PayloadSchemaValidator(URL schemaLocation, SoapValidationProperties.Mode mode, int samplePercent) {
+        this.mode = mode;
+        this.samplePercent = samplePercent;
+        try {
+            this.schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schemaLocation);
+        } catch (SAXException e) {
+            throw new IllegalStateException("Invalid schema " + schemaLocation, e);
+        }
+        this.validators = ThreadLocal.withInitial(schema::newValidator);
+    }
+
+    /**
+     * Decide whether the current request is validated
+     * @return true if the request should be validated
+     */
+    public boolean shouldValidate() {
+        return switch (mode) {
+            case ALWAYS -> true;
+            case SAMPLED -> ThreadLocalRandom.current().nextInt(100) < samplePercent;
+            case OFF -> false;
+        };
+    }
+
+    /**
+     * Validate a payload
+     * @param payload the payload to validate
+     * @return validation errors, empty if the payload is valid
+     * @throws IOException if the payload cannot be read
+     */
+    public List<SAXParseException> validate(Source payload) throws IOException {
+        Validator validator = validators.get();
+        CollectingErrorHandler errors = new CollectingErrorHandler();
+        validator.reset();
+        validator.setErrorHandler(errors);
+        try {
+            validator.validate(payload);
+        } catch (SAXParseException e) {
+            // Not well-formed; normally already reported to the handler
+            if (errors.errors.isEmpty()) {
+                errors.errors.add(e);
+            }
+        } catch (SAXException e) {
+            errors.errors.add(new SAXParseException(e.getMessage(), null, e));
+        }
+        return errors.errors;
+    }
+
+    private static final class CollectingErrorHandler implements ErrorHandler {
+        private final List<SAXParseException> errors = new ArrayList<>(0);
+
+        @Override
+        public void warning(SAXParseException exception) {
+        }
+
+        @Override
+        public void error(SAXParseException exception) {
+            errors.add(exception);
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) {
+            errors.add(exception);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.legacysoap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointInterceptor;
+import org.springframework.ws.soap.SoapFault;
+import org.springframework.ws.soap.SoapFaultDetail;
+import org.springframework.ws.soap.SoapMessage;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Validates SOAP request payloads against schema.xsd before they reach ShoppingCartEndpoint.
+ * Invalid requests get the same client fault as Spring WS's PayloadValidatingInterceptor,
+ * but the schema is compiled once, validators are reused per thread and validation can be sampled.
+ */
+public class SchemaValidationInterceptor implements EndpointInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaValidationInterceptor.class);
+    private static final QName DETAIL_ELEMENT = new QName("http://springframework.org/spring-ws", "ValidationError", "spring-ws");
+
+    private final PayloadSchemaValidator validator;
+
+    public SchemaValidationInterceptor(PayloadSchemaValidator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public boolean handleRequest(MessageContext messageContext, Object endpoint) throws Exception {
+        if (!validator.shouldValidate()) {
+            return true;
+        }
+        Source payload = messageContext.getRequest().getPayloadSource();
+        if (payload == null) {
+            return true;
+        }
+        List<SAXParseException> errors = validator.validate(payload);
+        if (errors.isEmpty()) {
+            return true;
+        }
+
+        log.warn("Invalid SOAP request: {}", errors.get(0).getMessage());
+        if (messageContext.getResponse() instanceof SoapMessage response) {
+            SoapFault fault = response.getSoapBody().addClientOrSenderFault("Validation error", Locale.ENGLISH);
+            SoapFaultDetail detail = fault.addFaultDetail();
+            for (SAXParseException error : errors) {
+                detail.addFaultDetailElement(DETAIL_ELEMENT).addText(error.getMessage());
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean handleResponse(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public boolean handleFault(MessageContext messageContext, Object endpoint) {
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(MessageContext messageContext, Object endpoint, Exception ex) {
+    }
+}
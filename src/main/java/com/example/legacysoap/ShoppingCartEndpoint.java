@@ -11,27 +11,33 @@ import com.example.legacysoap.domain.UpdateQuantityRequest;
 import com.example.legacysoap.domain.UpdateQuantityResponse;
 import com.example.legacysoap.domain.ClearCartRequest;
 import com.example.legacysoap.domain.ClearCartResponse;
+import com.example.legacysoap.service.CartService;
 import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
 import org.springframework.context.annotation.Profile;
 
-import java.util.HashMap;
-import java.util.Map;
-
 @Profile("!test")
 @Endpoint
 public class ShoppingCartEndpoint {
     private static final String NAMESPACE_URI = "http://example.com/shoppingcart";
-    private Map<String, Integer> cart = new HashMap<>(); // In-memory cart
+    private final CartService cartService; // Same cart as the REST API
+
+    public ShoppingCartEndpoint(CartService cartService) {
+        this.cartService = cartService;
+    }
 
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "AddItemRequest")
     @ResponsePayload
     public AddItemResponse addItem(@RequestPayload AddItemRequest request) {
-        cart.put(request.getProductId(), cart.getOrDefault(request.getProductId(), 0) + request.getQuantity());
         AddItemResponse response = new AddItemResponse();
-        response.setSuccess(true);
+        try {
+            cartService.addItem(request.getProductId(), request.getQuantity());
+            response.setSuccess(true);
+        } catch (IllegalArgumentException e) {
+            response.setSuccess(false);
+        }
         return response;
     }
 
@@ -39,10 +45,10 @@ public class ShoppingCartEndpoint {
     @ResponsePayload
     public GetCartResponse getCart(@RequestPayload GetCartRequest request) {
         GetCartResponse response = new GetCartResponse();
-        cart.forEach((productId, quantity) -> {
+        cartService.getCartItems().forEach(cartItem -> {
             GetCartResponse.CartItems item = new GetCartResponse.CartItems();
-            item.setProductId(productId);
-            item.setQuantity(quantity);
+            item.setProductId(cartItem.productId());
+            item.setQuantity(cartItem.quantity());
             response.getCartItems().add(item);
         });
         return response;
@@ -51,7 +57,7 @@ public class ShoppingCartEndpoint {
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "RemoveItemRequest")
     @ResponsePayload
     public RemoveItemResponse removeItem(@RequestPayload RemoveItemRequest request) {
-        cart.remove(request.getProductId());
+        cartService.removeItem(request.getProductId());
         RemoveItemResponse response = new RemoveItemResponse();
         response.setSuccess(true);
         return response;
@@ -60,21 +66,19 @@ public class ShoppingCartEndpoint {
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "UpdateQuantityRequest")
     @ResponsePayload
     public UpdateQuantityResponse updateQuantity(@RequestPayload UpdateQuantityRequest request) {
-        if (cart.containsKey(request.getProductId())) {
-            cart.put(request.getProductId(), request.getQuantity());
-            UpdateQuantityResponse response = new UpdateQuantityResponse();
-            response.setSuccess(true);
-            return response;
-        }
         UpdateQuantityResponse response = new UpdateQuantityResponse();
-        response.setSuccess(false);
+        try {
+            response.setSuccess(cartService.updateQuantity(request.getProductId(), request.getQuantity()).isPresent());
+        } catch (IllegalArgumentException e) {
+            response.setSuccess(false);
+        }
         return response;
     }
 
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "ClearCartRequest")
     @ResponsePayload
     public ClearCartResponse clearCart(@RequestPayload ClearCartRequest request) {
-        cart.clear();
+        cartService.clearCart();
         ClearCartResponse response = new ClearCartResponse();
         response.setSuccess(true);
         return response;
@@ -0,0 +1,56 @@
+package com.example.legacysoap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Training run for the class-data-sharing archive built by the cds Maven profile.
+ * Serves one SOAP and one REST request against itself, so that the classes on the
+ * first-request path are archived too, then shuts the application down.
+ */
+final class StartupTrainingRun {
+
+    static final String PROPERTY = "cart.startup.training-run";
+
+    /** First request of the training run, also sent by StartupBenchmark to time the first response */
+    static final String GET_CART_ENVELOPE = """
+        <soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/"
+                          xmlns:sc="http://example.com/shoppingcart">
+          <soapenv:Body><sc:GetCartRequest/></soapenv:Body>
+        </soapenv:Envelope>""";
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTrainingRun.class);
+
+    private StartupTrainingRun() {
+    }
+
+    static void runAndExit(ConfigurableApplicationContext context) {
+        String port = context.getEnvironment().getProperty("local.server.port");
+        HttpClient client = HttpClient.newHttpClient();
+        try {
+            send(client, HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/ws"))
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(GET_CART_ENVELOPE))
+                .build());
+            send(client, HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/cart/items"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"productId\":\"TRAINING\",\"quantity\":1}"))
+                .build());
+        } catch (Exception e) {
+            log.warn("Training requests failed; the archive will only cover startup", e);
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+
+    private static void send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        log.info("Training request {} {} -> {}", request.method(), request.uri().getPath(), response.statusCode());
+    }
+}
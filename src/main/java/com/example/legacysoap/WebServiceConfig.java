@@ -1,20 +1,57 @@
 package com.example.legacysoap;
 
+import com.example.legacysoap.config.SoapValidationProperties;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.ws.config.annotation.EnableWs;
 import org.springframework.ws.config.annotation.WsConfigurerAdapter;
+import org.springframework.ws.server.EndpointInterceptor;
 import org.springframework.ws.transport.http.MessageDispatcherServlet;
 import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
+import org.springframework.ws.wsdl.wsdl11.SimpleWsdl11Definition;
+import org.springframework.ws.wsdl.wsdl11.Wsdl11Definition;
 import org.springframework.xml.xsd.SimpleXsdSchema;
 import org.springframework.xml.xsd.XsdSchema;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
 @EnableWs
 @Configuration
 public class WebServiceConfig extends WsConfigurerAdapter {
+
+    /** WSDL written at build time by WsdlGenerator */
+    static final String PRECOMPUTED_WSDL = "wsdl/shoppingCart.wsdl";
+
+    private final SoapValidationProperties validation;
+
+    public WebServiceConfig(SoapValidationProperties validation) {
+        this.validation = validation;
+    }
+
+    /**
+     * Validate request payloads against schema.xsd unless validation is switched off
+     */
+    @Override
+    public void addInterceptors(List<EndpointInterceptor> interceptors) {
+        if (validation.mode() == SoapValidationProperties.Mode.OFF) {
+            return;
+        }
+        try {
+            PayloadSchemaValidator validator = new PayloadSchemaValidator(
+                new ClassPathResource("schema.xsd").getURL(), validation.mode(), validation.samplePercent());
+            interceptors.add(new SchemaValidationInterceptor(validator));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load schema.xsd", e);
+        }
+    }
+
     @Bean
     public ServletRegistrationBean<MessageDispatcherServlet> messageDispatcherServlet(ApplicationContext appContext) {
         MessageDispatcherServlet servlet = new MessageDispatcherServlet();
@@ -23,8 +60,27 @@ public class WebServiceConfig extends WsConfigurerAdapter {
         return new ServletRegistrationBean<>(servlet, "/ws/*");
     }
 
+    /**
+     * Serve the WSDL generated at build time when it is on the classpath,
+     * so startup does not parse the schema and build the WSDL with wsdl4j.
+     * Falls back to generating it, e.g. when running from an IDE without the Maven build.
+     */
     @Bean(name = "shoppingCart")
-    public DefaultWsdl11Definition defaultWsdl11Definition(XsdSchema schema) {
+    public Wsdl11Definition defaultWsdl11Definition(ObjectProvider<XsdSchema> schema) {
+        ClassPathResource precomputed = new ClassPathResource(PRECOMPUTED_WSDL);
+        if (precomputed.exists()) {
+            return new SimpleWsdl11Definition(precomputed);
+        }
+        return buildWsdl11Definition(schema.getObject());
+    }
+
+    @Bean
+    @Lazy
+    public XsdSchema schema() {
+        return new SimpleXsdSchema(new ClassPathResource("schema.xsd"));
+    }
+
+    static DefaultWsdl11Definition buildWsdl11Definition(XsdSchema schema) {
         DefaultWsdl11Definition wsdl = new DefaultWsdl11Definition();
         wsdl.setPortTypeName("ShoppingCartPort");
         wsdl.setLocationUri("/ws");
@@ -32,9 +88,4 @@ public class WebServiceConfig extends WsConfigurerAdapter {
         wsdl.setSchema(schema);
         return wsdl;
     }
-
-    @Bean
-    public XsdSchema schema() {
-        return new SimpleXsdSchema(new ClassPathResource("schema.xsd"));
-    }
 }
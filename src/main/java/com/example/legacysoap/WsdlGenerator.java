@@ -0,0 +1,40 @@
+package com.example.legacysoap;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
+import org.springframework.xml.xsd.SimpleXsdSchema;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Build-time generator for the static WSDL served by WebServiceConfig.
+ * Runs in the process-classes phase with the compiled classes directory as its argument,
+ * producing exactly the WSDL that DefaultWsdl11Definition would build at startup.
+ */
+public final class WsdlGenerator {
+
+    private WsdlGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: WsdlGenerator <output-directory>");
+        }
+        SimpleXsdSchema schema = new SimpleXsdSchema(new ClassPathResource("schema.xsd"));
+        schema.afterPropertiesSet();
+        DefaultWsdl11Definition definition = WebServiceConfig.buildWsdl11Definition(schema);
+        definition.afterPropertiesSet();
+
+        Path target = Path.of(args[0]).resolve(WebServiceConfig.PRECOMPUTED_WSDL);
+        Files.createDirectories(target.getParent());
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(definition.getSource(), new StreamResult(target.toFile()));
+        System.out.println("Wrote " + target);
+    }
+}
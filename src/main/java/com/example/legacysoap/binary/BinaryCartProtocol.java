@@ -0,0 +1,81 @@
+package com.example.legacysoap.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the binary cart protocol shared by BinaryCartServer and BinaryCartClient.
+ * <p>
+ * Every frame is {@code int length} followed by {@code length} bytes; integers are big-endian
+ * and strings are an unsigned short byte count followed by UTF-8 bytes.
+ * Requests carry {@code int requestId, byte opcode, payload}; responses carry
+ * {@code int requestId, byte status, payload}. Requests on a connection may be pipelined
+ * and responses are always returned in request order.
+ * <pre>
+ * ADD_ITEM        cartId, productId, int quantity  -&gt; int newQuantity
+ * GET_CART        cartId                           -&gt; int count, (productId, int quantity) * count
+ * UPDATE_QUANTITY cartId, productId, int quantity  -&gt; int quantity | NOT_FOUND
+ * REMOVE_ITEM     cartId, productId                -&gt; (empty) | NOT_FOUND
+ * CLEAR_CART      cartId                           -&gt; (empty)
+ * GET_TOTALS      cartId                           -&gt; int totalItems, int totalQuantity
+ * </pre>
+ * INVALID_REQUEST and INTERNAL_ERROR responses carry a message string.
+ */
+public final class BinaryCartProtocol {
+
+    public static final byte ADD_ITEM = 1;
+    public static final byte GET_CART = 2;
+    public static final byte UPDATE_QUANTITY = 3;
+    public static final byte REMOVE_ITEM = 4;
+    public static final byte CLEAR_CART = 5;
+    public static final byte GET_TOTALS = 6;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_NOT_FOUND = 1;
+    public static final byte STATUS_INVALID_REQUEST = 2;
+    public static final byte STATUS_INTERNAL_ERROR = 3;
+
+    /** Size of the length prefix */
+    public static final int LENGTH_BYTES = Integer.BYTES;
+    /** Size of requestId plus opcode or status */
+    public static final int HEADER_BYTES = Integer.BYTES + Byte.BYTES;
+    public static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private BinaryCartProtocol() {
+    }
+
+    /**
+     * Encode a string for the wire
+     * @param value the string to encode
+     * @return UTF-8 bytes
+     * @throws IllegalArgumentException if the encoded string is too long
+     */
+    public static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String exceeds " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    /**
+     * Get encoded size of a string including its length prefix
+     * @param bytes UTF-8 bytes from {@link #encode(String)}
+     * @return size on the wire
+     */
+    public static int sizeOf(byte[] bytes) {
+        return Short.BYTES + bytes.length;
+    }
+
+    public static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    public static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.legacysoap.binary;
+
+import com.example.legacysoap.config.BinaryProtocolProperties;
+import com.example.legacysoap.dto.CartItem;
+import com.example.legacysoap.service.CartService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.example.legacysoap.binary.BinaryCartProtocol.*;
+
+/**
+ * NIO listener for the binary cart protocol, backed by the same CartService as the SOAP and REST APIs.
+ * Each selector thread owns its connections outright; every connection has one direct buffer for
+ * reads and one for writes, and pipelined requests are executed in order as soon as they are complete.
+ * A connection stops reading while its peer is not draining responses.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(prefix = "cart.binary", name = "enabled", havingValue = "true")
+public class BinaryCartServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryCartServer.class);
+
+    private final CartService cartService;
+    private final BinaryProtocolProperties properties;
+    private ServerSocketChannel serverChannel;
+    private EventLoop[] loops;
+    private volatile boolean running;
+
+    public BinaryCartServer(CartService cartService, BinaryProtocolProperties properties) {
+        this.cartService = cartService;
+        this.properties = properties;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        int threads = properties.ioThreads() > 0 ? properties.ioThreads() : Runtime.getRuntime().availableProcessors();
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            serverChannel.bind(new InetSocketAddress(properties.port()));
+            serverChannel.configureBlocking(false);
+            loops = new EventLoop[threads];
+            for (int i = 0; i < threads; i++) {
+                loops[i] = new EventLoop(i);
+            }
+            serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start binary cart listener", e);
+        }
+        running = true;
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+        log.info("Binary cart protocol listening on port {} with {} I/O threads", getPort(), threads);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        for (EventLoop loop : loops) {
+            try {
+                loop.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeQuietly(serverChannel);
+        log.info("Binary cart protocol listener stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Get the port the listener is bound to
+     * @return bound port, or -1 if not started
+     */
+    public int getPort() {
+        return serverChannel == null ? -1 : serverChannel.socket().getLocalPort();
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.debug("Error closing channel", e);
+        }
+    }
+
+    /**
+     * One selector thread; loop 0 also accepts and hands connections out round-robin
+     */
+    private final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private int nextLoop;
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "cart-binary-io-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    SocketChannel channel;
+                    while ((channel = pending.poll()) != null) {
+                        try {
+                            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                        } catch (IOException e) {
+                            closeQuietly(channel);
+                        }
+                    }
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        handle(key);
+                    }
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                log.error("Binary cart I/O loop failed", e);
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    closeQuietly(key.channel());
+                }
+                closeQuietly(selector);
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isWritable()) {
+                    connection.onWritable(key);
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.onReadable(key);
+                }
+            } catch (IOException e) {
+                log.debug("Closing binary cart connection: {}", e.getMessage());
+                key.cancel();
+                closeQuietly(key.channel());
+            }
+        }
+
+        private void accept() {
+            try {
+                SocketChannel channel;
+                while ((channel = serverChannel.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    EventLoop target = loops[nextLoop];
+                    nextLoop = (nextLoop + 1) % loops.length;
+                    target.register(channel);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to accept binary cart connection", e);
+            }
+        }
+    }
+
+    /**
+     * Per-connection state. Only touched by the owning selector thread.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in;
+        private ByteBuffer out;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.in = ByteBuffer.allocateDirect(properties.bufferSize());
+            this.out = ByteBuffer.allocateDirect(properties.bufferSize());
+        }
+
+        void onReadable(SelectionKey key) throws IOException {
+            if (channel.read(in) < 0) {
+                throw new ProtocolException("Peer closed connection");
+            }
+            drive(key);
+        }
+
+        void onWritable(SelectionKey key) throws IOException {
+            drive(key);
+        }
+
+        /**
+         * Run buffered requests and write their responses until either the peer stops
+         * draining responses, in which case reads pause, or no complete request is left
+         */
+        private void drive(SelectionKey key) throws IOException {
+            while (true) {
+                processFrames();
+                flush();
+                if (out.position() > 0) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+                if (!hasCompleteFrame()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+            }
+        }
+
+        private boolean hasCompleteFrame() {
+            return in.position() >= LENGTH_BYTES && in.position() >= LENGTH_BYTES + in.getInt(0);
+        }
+
+        private void processFrames() throws IOException {
+            in.flip();
+            try {
+                while (in.remaining() >= LENGTH_BYTES && out.position() < out.capacity() / 2) {
+                    int length = in.getInt(in.position());
+                    if (length < HEADER_BYTES || length > in.capacity() - LENGTH_BYTES) {
+                        throw new ProtocolException("Invalid frame length " + length);
+                    }
+                    if (in.remaining() < LENGTH_BYTES + length) {
+                        break;
+                    }
+                    int frameEnd = in.position() + LENGTH_BYTES + length;
+                    int limit = in.limit();
+                    in.position(in.position() + LENGTH_BYTES).limit(frameEnd);
+                    try {
+                        dispatch();
+                    } finally {
+                        in.limit(limit).position(frameEnd);
+                    }
+                }
+            } finally {
+                in.compact();
+            }
+        }
+
+        private void dispatch() throws IOException {
+            int requestId = in.getInt();
+            byte opcode = in.get();
+            try {
+                switch (opcode) {
+                    case ADD_ITEM -> {
+                        String cartId = getString(in);
+                        String productId = getString(in);
+                        CartItem item = cartService.addItem(cartId, productId, in.getInt());
+                        writeInt(requestId, item.quantity());
+                    }
+                    case GET_CART -> writeItems(requestId, cartService.getCartItems(getString(in)));
+                    case UPDATE_QUANTITY -> {
+                        String cartId = getString(in);
+                        String productId = getString(in);
+                        Optional<CartItem> item = cartService.updateQuantity(cartId, productId, in.getInt());
+                        if (item.isPresent()) {
+                            writeInt(requestId, item.get().quantity());
+                        } else {
+                            writeStatus(requestId, STATUS_NOT_FOUND);
+                        }
+                    }
+                    case REMOVE_ITEM -> {
+                        String cartId = getString(in);
+                        boolean removed = cartService.removeItem(cartId, getString(in));
+                        writeStatus(requestId, removed ? STATUS_OK : STATUS_NOT_FOUND);
+                    }
+                    case CLEAR_CART -> {
+                        cartService.clearCart(getString(in));
+                        writeStatus(requestId, STATUS_OK);
+                    }
+                    case GET_TOTALS -> {
+                        String cartId = getString(in);
+                        int totalItems = cartService.getTotalItems(cartId);
+                        int totalQuantity = cartService.getTotalQuantity(cartId);
+                        ensureWritable(LENGTH_BYTES + HEADER_BYTES + 2 * Integer.BYTES);
+                        beginResponse(requestId, STATUS_OK, 2 * Integer.BYTES);
+                        out.putInt(totalItems).putInt(totalQuantity);
+                    }
+                    default -> writeError(requestId, STATUS_INVALID_REQUEST, "Unknown opcode " + opcode);
+                }
+            } catch (BufferUnderflowException e) {
+                writeError(requestId, STATUS_INVALID_REQUEST, "Malformed request");
+            } catch (IllegalArgumentException e) {
+                writeError(requestId, STATUS_INVALID_REQUEST, String.valueOf(e.getMessage()));
+            } catch (RuntimeException e) {
+                log.error("Unexpected error handling binary cart request", e);
+                writeError(requestId, STATUS_INTERNAL_ERROR, "An unexpected error occurred");
+            }
+        }
+
+        private void writeStatus(int requestId, byte status) throws IOException {
+            ensureWritable(LENGTH_BYTES + HEADER_BYTES);
+            beginResponse(requestId, status, 0);
+        }
+
+        private void writeInt(int requestId, int value) throws IOException {
+            ensureWritable(LENGTH_BYTES + HEADER_BYTES + Integer.BYTES);
+            beginResponse(requestId, STATUS_OK, Integer.BYTES);
+            out.putInt(value);
+        }
+
+        private void writeError(int requestId, byte status, String message) throws IOException {
+            byte[] bytes = encode(message);
+            ensureWritable(LENGTH_BYTES + HEADER_BYTES + sizeOf(bytes));
+            beginResponse(requestId, status, sizeOf(bytes));
+            putString(out, bytes);
+        }
+
+        private void writeItems(int requestId, List<CartItem> items) throws IOException {
+            byte[][] productIds = new byte[items.size()][];
+            int payload = Integer.BYTES;
+            for (int i = 0; i < productIds.length; i++) {
+                productIds[i] = encode(items.get(i).productId());
+                payload += sizeOf(productIds[i]) + Integer.BYTES;
+            }
+            ensureWritable(LENGTH_BYTES + HEADER_BYTES + payload);
+            beginResponse(requestId, STATUS_OK, payload);
+            out.putInt(productIds.length);
+            for (int i = 0; i < productIds.length; i++) {
+                putString(out, productIds[i]);
+                out.putInt(items.get(i).quantity());
+            }
+        }
+
+        private void beginResponse(int requestId, byte status, int payloadBytes) {
+            out.putInt(HEADER_BYTES + payloadBytes).putInt(requestId).put(status);
+        }
+
+        /**
+         * Make room for a response, first by writing out what is queued and
+         * then by growing the buffer for responses larger than it
+         */
+        private void ensureWritable(int bytes) throws IOException {
+            if (out.remaining() >= bytes) {
+                return;
+            }
+            out.flip();
+            channel.write(out);
+            out.compact();
+            if (out.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(out.capacity() * 2, out.position() + bytes));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+        }
+
+        private void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            if (out.position() == 0 && out.capacity() > properties.bufferSize()) {
+                out = ByteBuffer.allocateDirect(properties.bufferSize());
+            }
+        }
+    }
+
+    /**
+     * Unrecoverable framing error; the connection is closed
+     */
+    private static final class ProtocolException extends IOException {
+        ProtocolException(String message) {
+            super(message);
+        }
+    }
+}
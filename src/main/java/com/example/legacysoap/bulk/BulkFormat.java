@@ -0,0 +1,39 @@
+package com.example.legacysoap.bulk;
+
+import java.util.Locale;
+
+/**
+ * Line formats for bulk cart import and export.
+ * Every line holds one cart item; the cart ID, product ID and quantity are required.
+ */
+public enum BulkFormat {
+    /** One flat JSON object per line: {"cartId":"c1","productId":"p1","quantity":3} */
+    NDJSON("application/x-ndjson"),
+    /** cartId,productId,quantity with RFC 4180 quoting and an optional header line */
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    BulkFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Look up a format by name, ignoring case
+     * @throws IllegalArgumentException if the name is not a known format
+     */
+    public static BulkFormat fromName(String name) {
+        if (name != null) {
+            for (BulkFormat format : values()) {
+                if (format.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown bulk format: " + name + "; expected ndjson or csv");
+    }
+}
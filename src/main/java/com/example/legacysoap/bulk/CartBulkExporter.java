@@ -0,0 +1,219 @@
+package com.example.legacysoap.bulk;
+
+import com.example.legacysoap.dto.CartItem;
+import com.example.legacysoap.service.CartService;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams every cart item from CartService to a channel as NDJSON or CSV, in the format
+ * CartBulkImporter reads. Lines are encoded into a fixed write buffer one cart at a time,
+ * so memory use does not depend on the number of carts.
+ */
+@Component
+public class CartBulkExporter {
+
+    /** Write buffer size */
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final byte[] JSON_CART_ID = "{\"cartId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_PRODUCT_ID = ",\"productId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_QUANTITY = ",\"quantity\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CSV_HEADER = "cartId,productId,quantity\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final CartService cartService;
+    private final int bufferSize;
+
+    public CartBulkExporter(CartService cartService) {
+        this(cartService, DEFAULT_BUFFER_SIZE);
+    }
+
+    CartBulkExporter(CartService cartService, int bufferSize) {
+        this.cartService = cartService;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Write one line per cart item; the channel is not closed.
+     * Each cart is a consistent snapshot, but carts changed during the export may or may not be included.
+     * @return number of items written
+     */
+    public long exportTo(WritableByteChannel out, BulkFormat format) throws IOException {
+        ChannelWriter writer = new ChannelWriter(out, ByteBuffer.allocate(bufferSize));
+        if (format == BulkFormat.CSV) {
+            writer.put(CSV_HEADER);
+        }
+        long[] written = {0};
+        try {
+            cartService.forEachCart((cartId, items) -> {
+                try {
+                    writeCart(writer, format, cartId, items);
+                    written[0] += items.size();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return written[0];
+    }
+
+    private static void writeCart(ChannelWriter writer, BulkFormat format, String cartId, List<CartItem> items)
+            throws IOException {
+        // Every line of a cart starts the same way; encode it once
+        byte[] prefix;
+        if (format == BulkFormat.NDJSON) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            line.writeBytes(JSON_CART_ID);
+            line.writeBytes(jsonString(cartId));
+            line.writeBytes(JSON_PRODUCT_ID);
+            prefix = line.toByteArray();
+        } else {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            line.writeBytes(csvField(cartId));
+            line.write(',');
+            prefix = line.toByteArray();
+        }
+
+        for (CartItem item : items) {
+            writer.put(prefix);
+            if (format == BulkFormat.NDJSON) {
+                writer.put(jsonString(item.productId()));
+                writer.put(JSON_QUANTITY);
+                writer.putInt(item.quantity());
+                writer.put((byte) '}');
+            } else {
+                writer.put(csvField(item.productId()));
+                writer.put((byte) ',');
+                writer.putInt(item.quantity());
+            }
+            writer.put((byte) '\n');
+        }
+    }
+
+    /**
+     * Quote and escape a JSON string. Only ASCII bytes need escaping, so this works on the UTF-8 bytes.
+     */
+    static byte[] jsonString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        boolean plain = true;
+        for (byte c : bytes) {
+            if (c == '"' || c == '\\' || (c >= 0 && c < 0x20)) {
+                plain = false;
+                break;
+            }
+        }
+        ByteArrayOutputStream quoted = new ByteArrayOutputStream(bytes.length + 2);
+        quoted.write('"');
+        if (plain) {
+            quoted.writeBytes(bytes);
+        } else {
+            for (byte c : bytes) {
+                switch (c) {
+                    case '"', '\\' -> {
+                        quoted.write('\\');
+                        quoted.write(c);
+                    }
+                    case '\n' -> quoted.writeBytes(new byte[] {'\\', 'n'});
+                    case '\r' -> quoted.writeBytes(new byte[] {'\\', 'r'});
+                    case '\t' -> quoted.writeBytes(new byte[] {'\\', 't'});
+                    default -> {
+                        if (c >= 0 && c < 0x20) {
+                            quoted.writeBytes(new byte[] {'\\', 'u', '0', '0', HEX[c >> 4], HEX[c & 0xf]});
+                        } else {
+                            quoted.write(c);
+                        }
+                    }
+                }
+            }
+        }
+        quoted.write('"');
+        return quoted.toByteArray();
+    }
+
+    /**
+     * Quote a CSV field if it contains a separator, quote or surrounding whitespace
+     */
+    static byte[] csvField(String value) {
+        boolean quote = !value.isEmpty() && (value.charAt(0) == '"'
+            || Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+        return ('"' + value.replace("\"", "\"\"") + '"').getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Buffers writes to a channel, draining the buffer whenever it fills
+     */
+    private static final class ChannelWriter {
+        private final WritableByteChannel out;
+        private final ByteBuffer buffer;
+        private final byte[] digits = new byte[11];
+
+        ChannelWriter(WritableByteChannel out, ByteBuffer buffer) {
+            this.out = out;
+            this.buffer = buffer;
+        }
+
+        void put(byte b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(b);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.remaining()) {
+                flush();
+                if (bytes.length > buffer.capacity()) {
+                    drain(ByteBuffer.wrap(bytes));
+                    return;
+                }
+            }
+            buffer.put(bytes);
+        }
+
+        void putInt(int value) throws IOException {
+            int start = digits.length;
+            long remaining = Math.abs((long) value);
+            do {
+                digits[--start] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining > 0);
+            if (value < 0) {
+                digits[--start] = '-';
+            }
+            if (digits.length - start > buffer.remaining()) {
+                flush();
+            }
+            buffer.put(digits, start, digits.length - start);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            drain(buffer);
+            buffer.clear();
+        }
+
+        private void drain(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package com.example.legacysoap.bulk;
+
+import com.example.legacysoap.dto.CartEntry;
+import com.example.legacysoap.service.CartService;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams NDJSON or CSV cart items from a channel into CartService.
+ * Lines are parsed straight from a fixed read buffer and applied with CartService.addItems
+ * in batches, so memory use does not depend on the input size. Like addItem, an import adds to
+ * the quantities already in the carts. Invalid lines are counted and skipped, not fatal;
+ * CSV fields must not contain line breaks.
+ */
+@Component
+public class CartBulkImporter {
+
+    /** Items applied to CartService per call */
+    static final int DEFAULT_BATCH_SIZE = 8192;
+    /** Read buffer size, which is also the longest accepted line */
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_ERRORS = 10;
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+
+    private static final byte[] CART_ID = "cartId".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PRODUCT_ID = "productId".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUANTITY = "quantity".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] KEYS = {CART_ID, PRODUCT_ID, QUANTITY};
+    private static final String CSV_HEADER = "cartId,productId,quantity";
+
+    private final CartService cartService;
+    private final int batchSize;
+    private final int bufferSize;
+
+    public CartBulkImporter(CartService cartService) {
+        this(cartService, DEFAULT_BATCH_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+    CartBulkImporter(CartService cartService, int batchSize, int bufferSize) {
+        this.cartService = cartService;
+        this.batchSize = batchSize;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Import every line of the channel; the channel is read to the end but not closed
+     * @return counts of imported and rejected lines
+     */
+    public ImportResult importFrom(ReadableByteChannel in, BulkFormat format) throws IOException {
+        Run run = new Run(format);
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        byte[] bytes = buffer.array();
+        int scanned = 0;
+        boolean skipping = false;
+        boolean eof = false;
+        while (!eof) {
+            eof = in.read(buffer) < 0;
+            int end = buffer.position();
+            int lineStart = 0;
+            for (int i = indexOfNewline(bytes, scanned, end); i >= 0; i = indexOfNewline(bytes, lineStart, end)) {
+                if (skipping) {
+                    skipping = false;
+                } else {
+                    run.line(bytes, lineStart, i);
+                }
+                lineStart = i + 1;
+            }
+            if (eof && lineStart < end && !skipping) {
+                run.line(bytes, lineStart, end);
+            } else if (lineStart == 0 && end == bytes.length) {
+                // No line end in a full buffer: drop the line and everything up to its end
+                if (!skipping) {
+                    run.overlong();
+                    skipping = true;
+                }
+                lineStart = end;
+            }
+            System.arraycopy(bytes, lineStart, bytes, 0, end - lineStart);
+            buffer.position(end - lineStart);
+            scanned = end - lineStart;
+        }
+        run.flush();
+        return new ImportResult(run.lines, run.imported, run.rejected, List.copyOf(run.errors));
+    }
+
+    /**
+     * Find the next '\n' eight bytes at a time
+     * @return its index, or -1 if there is none before {@code to}
+     */
+    static int indexOfNewline(byte[] bytes, int from, int to) {
+        int i = from;
+        for (; i <= to - Long.BYTES; i += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, i) ^ NEWLINES;
+            // High bit set in each byte that was '\n'; the lowest one is exact
+            long found = (word - 0x0101010101010101L) & ~word & 0x8080808080808080L;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parser and batch state of one import
+     */
+    private final class Run {
+        private final BulkFormat format;
+        private final List<CartEntry> batch = new ArrayList<>(batchSize);
+        private final List<String> errors = new ArrayList<>();
+        private long lineNumber;
+        private long lines;
+        private long imported;
+        private long rejected;
+
+        // Current line
+        private byte[] b;
+        private int pos;
+        private int end;
+
+        // Consecutive lines usually share a cart; reuse its ID instead of decoding it again
+        private byte[] lastCartBytes = new byte[0];
+        private String lastCartId;
+
+        Run(BulkFormat format) {
+            this.format = format;
+        }
+
+        void line(byte[] bytes, int from, int to) {
+            lineNumber++;
+            if (to > from && bytes[to - 1] == '\r') {
+                to--;
+            }
+            b = bytes;
+            pos = from;
+            end = to;
+            skipWhitespace();
+            if (pos == end) {
+                return;
+            }
+            lines++;
+            try {
+                CartEntry entry;
+                if (format == BulkFormat.NDJSON) {
+                    entry = parseJson();
+                } else if (lines == 1 && isCsvHeader(from, to)) {
+                    return;
+                } else {
+                    entry = parseCsv(from);
+                }
+                batch.add(validate(entry));
+                if (batch.size() >= batchSize) {
+                    flush();
+                }
+            } catch (MalformedLineException e) {
+                reject(e.getMessage());
+            }
+        }
+
+        void overlong() {
+            lineNumber++;
+            lines++;
+            reject("line exceeds " + bufferSize + " bytes");
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                cartService.addItems(batch);
+                imported += batch.size();
+                batch.clear();
+            }
+        }
+
+        private void reject(String message) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("line " + lineNumber + ": " + message);
+            }
+        }
+
+        private CartEntry validate(CartEntry entry) throws MalformedLineException {
+            if (entry.cartId() == null || entry.cartId().trim().isEmpty()) {
+                throw new MalformedLineException("Cart ID cannot be null or empty");
+            }
+            if (entry.productId() == null || entry.productId().trim().isEmpty()) {
+                throw new MalformedLineException("Product ID cannot be null or empty");
+            }
+            if (entry.quantity() <= 0) {
+                throw new MalformedLineException("Quantity must be positive");
+            }
+            return entry;
+        }
+
+        // NDJSON
+
+        private CartEntry parseJson() throws MalformedLineException {
+            String cartId = null;
+            String productId = null;
+            int quantity = 0;
+            expect('{');
+            skipWhitespace();
+            if (pos < end && b[pos] == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    byte[] key = key();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    if (key == CART_ID) {
+                        cartId = string(true);
+                    } else if (key == PRODUCT_ID) {
+                        productId = string(false);
+                    } else if (key == QUANTITY) {
+                        quantity = integer();
+                    } else {
+                        skipValue();
+                    }
+                    skipWhitespace();
+                    if (pos < end && b[pos] == ',') {
+                        pos++;
+                    } else {
+                        expect('}');
+                        break;
+                    }
+                }
+            }
+            skipWhitespace();
+            if (pos != end) {
+                throw new MalformedLineException("unexpected characters after the object");
+            }
+            return new CartEntry(cartId, productId, quantity);
+        }
+
+        /**
+         * Read an object key
+         * @return one of the known key constants, or null for any other key
+         */
+        private byte[] key() throws MalformedLineException {
+            if (pos >= end || b[pos] != '"') {
+                throw new MalformedLineException("expected a quoted key at column " + column());
+            }
+            int start = pos + 1;
+            int close = start;
+            while (close < end && b[close] != '"' && b[close] != '\\') {
+                close++;
+            }
+            if (close < end && b[close] == '"') {
+                pos = close + 1;
+                return known(b, start, close);
+            }
+            byte[] decoded = string(false).getBytes(StandardCharsets.UTF_8);
+            return known(decoded, 0, decoded.length);
+        }
+
+        private byte[] known(byte[] bytes, int from, int to) {
+            for (byte[] key : KEYS) {
+                if (Arrays.equals(bytes, from, to, key, 0, key.length)) {
+                    return key;
+                }
+            }
+            return null;
+        }
+
+        private String string(boolean cartId) throws MalformedLineException {
+            expect('"');
+            int start = pos;
+            while (pos < end && b[pos] != '"' && b[pos] != '\\') {
+                pos++;
+            }
+            if (pos >= end) {
+                throw new MalformedLineException("unterminated string");
+            }
+            if (b[pos] == '"') {
+                pos++;
+                return cartId
+                    ? cartId(start, pos - 1)
+                    : new String(b, start, pos - 1 - start, StandardCharsets.UTF_8);
+            }
+            StringBuilder value = new StringBuilder(new String(b, start, pos - start, StandardCharsets.UTF_8));
+            while (true) {
+                if (pos >= end) {
+                    throw new MalformedLineException("unterminated string");
+                }
+                byte c = b[pos];
+                if (c == '"') {
+                    pos++;
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    int segment = pos;
+                    while (pos < end && b[pos] != '"' && b[pos] != '\\') {
+                        pos++;
+                    }
+                    value.append(new String(b, segment, pos - segment, StandardCharsets.UTF_8));
+                    continue;
+                }
+                if (pos + 1 >= end) {
+                    throw new MalformedLineException("unterminated string");
+                }
+                byte escaped = b[pos + 1];
+                pos += 2;
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append((char) escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> value.append(unicodeEscape());
+                    default -> throw new MalformedLineException("invalid escape \\" + (char) escaped);
+                }
+            }
+        }
+
+        private char unicodeEscape() throws MalformedLineException {
+            if (pos + 4 > end) {
+                throw new MalformedLineException("truncated \\u escape");
+            }
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(b[pos + i], 16);
+                if (digit < 0) {
+                    throw new MalformedLineException("invalid \\u escape");
+                }
+                value = value << 4 | digit;
+            }
+            pos += 4;
+            return (char) value;
+        }
+
+        private int integer() throws MalformedLineException {
+            boolean negative = pos < end && b[pos] == '-';
+            if (negative) {
+                pos++;
+            }
+            long value = 0;
+            int digits = pos;
+            while (pos < end && b[pos] >= '0' && b[pos] <= '9') {
+                value = value * 10 + (b[pos++] - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw new MalformedLineException("quantity out of range");
+                }
+            }
+            if (pos == digits || (pos < end && (b[pos] == '.' || b[pos] == 'e' || b[pos] == 'E'))) {
+                throw new MalformedLineException("quantity must be an integer");
+            }
+            return (int) (negative ? -value : value);
+        }
+
+        /**
+         * Skip the value of an unknown key, including nested objects and arrays
+         */
+        private void skipValue() throws MalformedLineException {
+            int depth = 0;
+            do {
+                if (pos >= end) {
+                    throw new MalformedLineException("unterminated value");
+                }
+                byte c = b[pos];
+                if (c == '"') {
+                    string(false);
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (depth == 0) {
+                        break;
+                    }
+                    depth--;
+                } else if (depth == 0 && c == ',') {
+                    break;
+                }
+                pos++;
+            } while (depth > 0 || (pos < end && b[pos] != ',' && b[pos] != '}' && !isWhitespace(b[pos])));
+        }
+
+        // CSV
+
+        private boolean isCsvHeader(int from, int to) {
+            return to - from == CSV_HEADER.length()
+                && new String(b, from, to - from, StandardCharsets.US_ASCII).equalsIgnoreCase(CSV_HEADER);
+        }
+
+        private CartEntry parseCsv(int from) throws MalformedLineException {
+            pos = from;
+            String cartId = csvField(true);
+            expect(',');
+            String productId = csvField(false);
+            expect(',');
+            skipWhitespace();
+            int quantity = integer();
+            skipWhitespace();
+            if (pos != end) {
+                throw new MalformedLineException("expected 3 fields");
+            }
+            return new CartEntry(cartId, productId, quantity);
+        }
+
+        private String csvField(boolean cartId) throws MalformedLineException {
+            int start = pos;
+            if (pos < end && b[pos] == '"') {
+                return quotedCsvField();
+            }
+            while (pos < end && b[pos] != ',') {
+                pos++;
+            }
+            return cartId ? cartId(start, pos) : new String(b, start, pos - start, StandardCharsets.UTF_8);
+        }
+
+        private String quotedCsvField() throws MalformedLineException {
+            pos++;
+            StringBuilder value = new StringBuilder();
+            int segment = pos;
+            while (true) {
+                if (pos >= end) {
+                    throw new MalformedLineException("unterminated quoted field");
+                }
+                if (b[pos] == '"') {
+                    value.append(new String(b, segment, pos - segment, StandardCharsets.UTF_8));
+                    if (pos + 1 < end && b[pos + 1] == '"') {
+                        value.append('"');
+                        pos += 2;
+                        segment = pos;
+                    } else {
+                        pos++;
+                        return value.toString();
+                    }
+                } else {
+                    pos++;
+                }
+            }
+        }
+
+        // Shared
+
+        private String cartId(int from, int to) {
+            if (!Arrays.equals(b, from, to, lastCartBytes, 0, lastCartBytes.length)) {
+                lastCartBytes = Arrays.copyOfRange(b, from, to);
+                lastCartId = new String(lastCartBytes, StandardCharsets.UTF_8);
+            }
+            return lastCartId;
+        }
+
+        private void expect(char c) throws MalformedLineException {
+            if (pos >= end || b[pos] != c) {
+                throw new MalformedLineException("expected '" + c + "' at column " + column());
+            }
+            pos++;
+        }
+
+        private void skipWhitespace() {
+            while (pos < end && isWhitespace(b[pos])) {
+                pos++;
+            }
+        }
+
+        private int column() {
+            int lineStart = pos;
+            while (lineStart > 0 && b[lineStart - 1] != '\n') {
+                lineStart--;
+            }
+            return pos - lineStart + 1;
+        }
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * A line that cannot be imported; thrown per rejected line, so without a stack trace
+     */
+    private static final class MalformedLineException extends Exception {
+        MalformedLineException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
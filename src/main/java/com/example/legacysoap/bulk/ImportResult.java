@@ -0,0 +1,17 @@
+package com.example.legacysoap.bulk;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import, using Java 17 record
+ * @param lines non-empty lines read, including a CSV header
+ * @param imported items added to carts
+ * @param rejected lines that could not be parsed or failed validation
+ * @param errors messages for the first rejected lines
+ */
+public record ImportResult(
+    long lines,
+    long imported,
+    long rejected,
+    List<String> errors
+) {}
@@ -0,0 +1,249 @@
+package com.example.legacysoap.cache;
+
+import com.example.legacysoap.dto.CartItem;
+import com.example.legacysoap.service.expiry.CartEvictionListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized cart responses, keyed by cart ID, representation and content encoding, each valid for
+ * one version of the cart (see CartService.getCartVersion). A mutation moves the cart to a new version,
+ * so the stored response stops matching and is replaced by the next read.
+ * <p>
+ * Bounded by the total size of the stored bodies rather than by entry count. Eviction is CLOCK:
+ * a hit only sets a flag, so reads never lock; when over budget, a sweep gives flagged entries
+ * a second chance and evicts the first unflagged one. A replaced or invalidated response stays
+ * charged until the sweep takes it off the clock, since until then the clock still holds its body.
+ */
+public class CartResponseCache implements CartEvictionListener {
+
+    /** Approximate heap cost of an entry besides its body */
+    static final int ENTRY_OVERHEAD = 160;
+
+    private final long maxBytes;
+    private final boolean gzip;
+    private final long gzipMinBytes;
+    private final ConcurrentHashMap<Key, Node> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Node> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong staleBytes = new AtomicLong();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxBytes budget for stored bodies plus per-entry overhead
+     * @param gzip whether to compress bodies for clients that accept gzip
+     * @param gzipMinBytes bodies smaller than this are stored uncompressed
+     */
+    public CartResponseCache(long maxBytes, boolean gzip, long gzipMinBytes) {
+        this.maxBytes = maxBytes;
+        this.gzip = gzip;
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    /**
+     * Cart read responses that are cached
+     */
+    public enum Representation {
+        /** GET /api/v1/cart */
+        JSON,
+        /** SOAP GetCartResponse envelope */
+        SOAP
+    }
+
+    /**
+     * Content encodings a client accepts
+     */
+    public enum Encoding {
+        IDENTITY,
+        GZIP
+    }
+
+    /**
+     * A stored response body, using Java 17 record
+     * @param version cart version the body was built from
+     * @param contentType Content-Type of the body
+     * @param gzipped whether the body is gzip-compressed
+     * @param body the bytes to write to the client
+     */
+    public record CachedResponse(long version, String contentType, boolean gzipped, byte[] body) {}
+
+    private record Key(String cartId, Representation representation, Encoding encoding) {}
+
+    private static final class Node {
+        final Key key;
+        final CachedResponse response;
+        volatile boolean referenced;
+
+        Node(Key key, CachedResponse response) {
+            this.key = key;
+            this.response = response;
+        }
+
+        long weight() {
+            return response.body().length + ENTRY_OVERHEAD;
+        }
+    }
+
+    public boolean isGzipEnabled() {
+        return gzip;
+    }
+
+    /**
+     * Look up the response for the given cart version
+     * @return the cached response, or null if none is stored for that version
+     */
+    public CachedResponse get(String cartId, long version, Representation representation, Encoding encoding) {
+        Node node = entries.get(new Key(cartId, representation, encoding));
+        if (node == null || node.response.version() != version) {
+            misses.increment();
+            return null;
+        }
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        hits.increment();
+        return node.response;
+    }
+
+    /**
+     * Store a freshly serialized response, compressing it first if the client accepts gzip
+     * @param version cart version read before the body was built
+     * @return the stored response
+     */
+    public CachedResponse put(String cartId, long version, Representation representation, Encoding encoding,
+                              String contentType, byte[] body) {
+        boolean compress = gzip && encoding == Encoding.GZIP && body.length >= gzipMinBytes;
+        CachedResponse response = new CachedResponse(version, contentType, compress, compress ? gzip(body) : body);
+        Node node = new Node(new Key(cartId, representation, encoding), response);
+        if (node.weight() > maxBytes) {
+            return response;
+        }
+        entries.compute(node.key, (key, previous) -> {
+            if (previous != null) {
+                staleBytes.addAndGet(previous.weight());
+            }
+            bytes.addAndGet(node.weight());
+            queued.incrementAndGet();
+            clock.add(node);
+            return node;
+        });
+        if (bytes.get() > maxBytes) {
+            sweep();
+        }
+        return response;
+    }
+
+    /**
+     * Drop every response of the given cart; their bodies are freed by the next sweep
+     */
+    public void invalidate(String cartId) {
+        for (Representation representation : Representation.values()) {
+            for (Encoding encoding : Encoding.values()) {
+                entries.computeIfPresent(new Key(cartId, representation, encoding), (key, node) -> {
+                    staleBytes.addAndGet(node.weight());
+                    return null;
+                });
+            }
+        }
+    }
+
+    /**
+     * Expired carts will not be read again; drop their responses now
+     */
+    @Override
+    public void onEviction(String cartId, List<CartItem> items, Cause cause) {
+        invalidate(cartId);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return bytes charged against the budget, including replaced responses not yet swept
+     */
+    public long weightedSize() {
+        return bytes.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Walk the clock, dropping nodes that were replaced or invalidated. While the live entries
+     * alone are over budget, also evict nodes not read since they were last passed. Stops as soon
+     * as everything is back within budget, so the next sweep resumes where this one left off.
+     * Two passes at most, since an evicting pass clears every flag it does not evict.
+     */
+    private void sweep() {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            for (int pass = 0; pass < 2; pass++) {
+                for (int remaining = queued.get(); remaining > 0; remaining--) {
+                    if (bytes.get() <= maxBytes) {
+                        return;
+                    }
+                    Node node = clock.poll();
+                    if (node == null) {
+                        return;
+                    }
+                    boolean evicting = bytes.get() - staleBytes.get() > maxBytes;
+                    if (entries.get(node.key) != node) {
+                        release(node, true);
+                    } else if (evicting && !node.referenced) {
+                        release(node, !entries.remove(node.key, node));
+                    } else {
+                        if (evicting) {
+                            node.referenced = false;
+                        }
+                        clock.add(node);
+                    }
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    /**
+     * Uncharge a node the sweep has taken off the clock
+     * @param stale whether it had already been replaced or invalidated
+     */
+    private void release(Node node, boolean stale) {
+        queued.decrementAndGet();
+        bytes.addAndGet(-node.weight());
+        if (stale) {
+            staleBytes.addAndGet(-node.weight());
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.legacysoap.cache;
+
+import com.example.legacysoap.cache.CartResponseCache.CachedResponse;
+import com.example.legacysoap.cache.CartResponseCache.Encoding;
+import com.example.legacysoap.cache.CartResponseCache.Representation;
+import com.example.legacysoap.capture.TrafficCaptureFilter;
+import com.example.legacysoap.service.CartService;
+import com.example.legacysoap.web.CachedBodyRequest;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Serves cart reads from CartResponseCache: GET /api/v1/cart and SOAP GetCartRequest on /ws.
+ * Runs after TrafficCaptureFilter, so that hits are captured like any other request. A hit writes
+ * the stored bytes straight to the servlet output stream, skipping Spring MVC, Spring-WS, Jackson
+ * and JAXB. A miss runs the chain as usual and stores the response body under the cart version
+ * read before the chain, so the stored body is never older than its version.
+ */
+public class CartResponseCacheFilter extends OncePerRequestFilter {
+
+    /** Filter order: after TrafficCaptureFilter, which must see the requests this filter answers */
+    public static final int ORDER = TrafficCaptureFilter.ORDER + 10;
+
+    private static final String NAMESPACE_URI = "http://example.com/shoppingcart";
+    private static final String REST_CART_PATH = "/api/v1/cart";
+    /** Larger SOAP requests cannot be a GetCartRequest and are not inspected */
+    private static final int MAX_SOAP_REQUEST_BYTES = 4096;
+    private static final XMLInputFactory XML_INPUT = newXmlInputFactory();
+
+    private final CartService cartService;
+    private final CartResponseCache cache;
+
+    public CartResponseCacheFilter(CartService cartService, CartResponseCache cache) {
+        this.cartService = cartService;
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(REST_CART_PATH)) {
+            return !"GET".equals(request.getMethod());
+        }
+        long length = request.getContentLengthLong();
+        return !(path.equals("/ws") || path.startsWith("/ws/"))
+            || !"POST".equals(request.getMethod()) || length < 0 || length > MAX_SOAP_REQUEST_BYTES;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpServletRequest effective = request;
+        Representation representation = Representation.JSON;
+        if (!"GET".equals(request.getMethod())) {
+            byte[] body = request.getInputStream().readNBytes((int) request.getContentLengthLong());
+            effective = new CachedBodyRequest(request, body);
+            if (!isCacheableGetCart(body)) {
+                chain.doFilter(effective, response);
+                return;
+            }
+            representation = Representation.SOAP;
+        }
+
+        Encoding encoding = cache.isGzipEnabled() && acceptsGzip(request) ? Encoding.GZIP : Encoding.IDENTITY;
+        if (cache.isGzipEnabled()) {
+            response.addHeader("Vary", "Accept-Encoding");
+        }
+        String cartId = CartService.DEFAULT_CART_ID;
+        long version = cartService.getCartVersion(cartId);
+        CachedResponse cached = cache.get(cartId, version, representation, encoding);
+        if (cached != null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(cached.contentType());
+            if (cached.gzipped()) {
+                response.setHeader("Content-Encoding", "gzip");
+            }
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(effective, wrapper);
+            // Version 0 only says the cart was missing before the chain ran; it may have been created since
+            if (version != 0 && wrapper.getStatus() == HttpServletResponse.SC_OK && !request.isAsyncStarted()) {
+                cache.put(cartId, version, representation, encoding, wrapper.getContentType(),
+                    wrapper.getContentAsByteArray());
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accepted = request.getHeader("Accept-Encoding");
+        if (accepted == null) {
+            return false;
+        }
+        for (String coding : accepted.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the envelope is a cacheable GetCartRequest: the only element in the Body, empty as
+     * schema.xsd requires, and without SOAP headers. Only such requests would pass schema validation
+     * and header processing in Spring-WS unchanged, so serving them from the cache skips nothing that
+     * could have failed; anything else goes through Spring-WS.
+     */
+    private static boolean isCacheableGetCart(byte[] envelope) {
+        try {
+            XMLStreamReader reader = XML_INPUT.createXMLStreamReader(new ByteArrayInputStream(envelope));
+            try {
+                int depth = 0;
+                boolean inBody = false;
+                boolean found = false;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        if (depth == 2) {
+                            inBody = reader.getLocalName().equals("Body");
+                        } else if (depth == 3 && inBody && !found) {
+                            found = reader.getLocalName().equals("GetCartRequest")
+                                && NAMESPACE_URI.equals(reader.getNamespaceURI())
+                                && reader.getAttributeCount() == 0;
+                            if (!found) {
+                                return false;
+                            }
+                        } else if (depth >= 3) {
+                            // A header, a second payload or content inside GetCartRequest
+                            return false;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                    } else if (event == XMLStreamConstants.CHARACTERS && depth >= 3 && !reader.isWhiteSpace()) {
+                        return false;
+                    } else if (event == XMLStreamConstants.CDATA && depth >= 3) {
+                        return false;
+                    }
+                }
+                return found;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // Let Spring-WS report the malformed request
+            return false;
+        }
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
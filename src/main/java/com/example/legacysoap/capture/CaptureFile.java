@@ -0,0 +1,230 @@
+package com.example.legacysoap.capture;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact file format for captured requests and replay results.
+ * A gzip stream of a header (magic, version, kind) followed by records of variable-length integers
+ * and length-prefixed UTF-8 strings. Writers sync-flush the compressor, so a file cut off by a crash
+ * is still readable up to its last flush.
+ */
+public final class CaptureFile {
+
+    private static final int MAGIC = 0x43415054; // "CAPT"
+    private static final int VERSION = 1;
+
+    /**
+     * What the records of a file are
+     */
+    public enum Kind {
+        /** CapturedRequest records written by TrafficRecorder */
+        TRAFFIC,
+        /** ReplayResult records written by TrafficReplay */
+        RESULTS
+    }
+
+    private CaptureFile() {
+    }
+
+    public static Writer newWriter(Path file, Kind kind) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            new GZIPOutputStream(Files.newOutputStream(file), 1 << 16, true), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(kind.ordinal());
+        return new Writer(out);
+    }
+
+    /**
+     * @throws IOException if the file is not a capture file of the given kind
+     */
+    public static Reader newReader(Path file, Kind kind) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new GZIPInputStream(Files.newInputStream(file), 1 << 16), 1 << 16));
+        try {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " capture file");
+            }
+            int fileKind = in.readUnsignedByte();
+            if (fileKind != kind.ordinal()) {
+                throw new IOException(file + " holds " + Kind.values()[fileKind] + ", expected " + kind);
+            }
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+        return new Reader(in);
+    }
+
+    /**
+     * Appends records; not thread-safe
+     */
+    public static final class Writer implements Closeable, Flushable {
+        private final DataOutputStream out;
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        public void write(CapturedRequest request) throws IOException {
+            writeVarLong(request.offsetMicros());
+            writeVarLong(request.durationMicros());
+            writeVarLong(request.status());
+            writeString(request.method());
+            writeString(request.path());
+            writeString(request.query());
+            writeString(request.contentType());
+            writeString(request.soapAction());
+            writeVarLong(request.body().length);
+            out.write(request.body());
+        }
+
+        public void write(ReplayResult result) throws IOException {
+            writeVarLong(result.index());
+            writeString(result.operation());
+            writeVarLong(result.status());
+            writeVarLong(result.latencyMicros());
+            writeVarLong(result.lagMicros());
+            out.writeInt((int) result.bodyChecksum());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        /**
+         * Length plus one, so that 0 stands for null
+         */
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads records in file order; not thread-safe
+     */
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+
+        private Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return the next request, or null at the end of the file or where a cut-off file ends
+         */
+        public CapturedRequest readRequest() throws IOException {
+            try {
+                long offsetMicros = readVarLong(true);
+                if (offsetMicros < 0) {
+                    return null;
+                }
+                long durationMicros = readVarLong(false);
+                int status = (int) readVarLong(false);
+                String method = readString();
+                String path = readString();
+                String query = readString();
+                String contentType = readString();
+                String soapAction = readString();
+                byte[] body = new byte[Math.toIntExact(readVarLong(false))];
+                in.readFully(body);
+                return new CapturedRequest(offsetMicros, durationMicros, status, method, path, query,
+                    contentType, soapAction, body);
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        /**
+         * @return the next result, or null at the end of the file or where a cut-off file ends
+         */
+        public ReplayResult readResult() throws IOException {
+            try {
+                long index = readVarLong(true);
+                if (index < 0) {
+                    return null;
+                }
+                String operation = readString();
+                int status = (int) readVarLong(false);
+                long latencyMicros = readVarLong(false);
+                long lagMicros = readVarLong(false);
+                long bodyChecksum = Integer.toUnsignedLong(in.readInt());
+                return new ReplayResult(index, operation, status, latencyMicros, lagMicros, bodyChecksum);
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        /**
+         * @param atRecordStart whether a clean end of file is allowed here, reported as -1
+         */
+        private long readVarLong(boolean atRecordStart) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    if (atRecordStart && shift == 0) {
+                        return -1;
+                    }
+                    throw new EOFException();
+                }
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable-length integer");
+        }
+
+        private String readString() throws IOException {
+            long length = readVarLong(false);
+            if (length == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[Math.toIntExact(length - 1)];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.legacysoap.capture;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One recorded request, using Java 17 record
+ * @param offsetMicros start time relative to the start of the capture
+ * @param durationMicros time the application took to handle it
+ * @param status HTTP status of the original response
+ * @param method HTTP method
+ * @param path request path without the context path
+ * @param query query string, or null
+ * @param contentType Content-Type header, or null
+ * @param soapAction SOAPAction header, or null
+ * @param body request body, empty if there was none
+ */
+public record CapturedRequest(
+    long offsetMicros,
+    long durationMicros,
+    int status,
+    String method,
+    String path,
+    String query,
+    String contentType,
+    String soapAction,
+    byte[] body
+) {
+
+    private static final Pattern SOAP_OPERATION =
+        Pattern.compile("<(?:[\\w.-]+:)?Body\\b[^>]*>\\s*<(?:[\\w.-]+:)?([\\w.-]+)");
+
+    /**
+     * Name used to group latencies: the payload root element for SOAP, method and path for REST
+     */
+    public String operation() {
+        if (path.startsWith("/ws")) {
+            Matcher matcher = SOAP_OPERATION.matcher(new String(body, StandardCharsets.UTF_8));
+            return "SOAP " + (matcher.find() ? matcher.group(1) : path);
+        }
+        return method + " " + path;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.legacysoap.capture;
+
+/**
+ * Outcome of one replayed request, using Java 17 record
+ * @param index position of the request in the capture file
+ * @param operation see CapturedRequest.operation
+ * @param status HTTP status, or 0 if no response was received
+ * @param latencyMicros time from sending the request to receiving the whole response
+ * @param lagMicros how late the request was sent against its scheduled time
+ * @param bodyChecksum CRC-32C of the response body, for comparing builds
+ */
+public record ReplayResult(
+    long index,
+    String operation,
+    int status,
+    long latencyMicros,
+    long lagMicros,
+    long bodyChecksum
+) {}
@@ -0,0 +1,77 @@
+package com.example.legacysoap.capture;
+
+import com.example.legacysoap.web.CachedBodyRequest;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records SOAP (/ws) and REST (/api/v1/cart) requests with their timing for TrafficReplay.
+ * Bodies are read up front so the recorded body is exactly what the application received.
+ * Bulk transfers pass through unrecorded. So do requests whose body is larger than
+ * cart.capture.max-body-bytes or of unknown length, but those are counted as skipped.
+ */
+@Component
+@Order(TrafficCaptureFilter.ORDER)
+@ConditionalOnProperty(prefix = "cart.capture", name = "enabled", havingValue = "true")
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    /** Filter order: ahead of filters that answer requests themselves, such as CartResponseCacheFilter */
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final TrafficRecorder recorder;
+
+    public TrafficCaptureFilter(TrafficRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = pathOf(request);
+        boolean captured = path.equals("/ws") || path.startsWith("/ws/")
+            || path.equals("/api/v1/cart") || path.startsWith("/api/v1/cart/");
+        return !captured || path.startsWith("/api/v1/cart/bulk");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        long length = request.getContentLengthLong();
+        if (length > recorder.maxBodyBytes() || length < 0 && request.getHeader("Transfer-Encoding") != null) {
+            recorder.skip();
+            chain.doFilter(request, response);
+            return;
+        }
+        byte[] body = length > 0 ? request.getInputStream().readNBytes((int) length) : NO_BODY;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), response);
+        } finally {
+            long duration = System.nanoTime() - start;
+            recorder.record(new CapturedRequest(
+                recorder.offsetMicros(start),
+                duration / 1_000,
+                response.getStatus(),
+                request.getMethod(),
+                pathOf(request),
+                request.getQueryString(),
+                request.getContentType(),
+                request.getHeader("SOAPAction"),
+                body));
+        }
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
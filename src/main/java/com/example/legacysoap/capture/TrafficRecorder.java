@@ -0,0 +1,130 @@
+package com.example.legacysoap.capture;
+
+import com.example.legacysoap.config.CaptureProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes captured requests to the capture file on a background thread.
+ * Request threads only enqueue; when the writer falls behind, requests are dropped and counted
+ * rather than slowing down the traffic being measured. Requests the filter cannot record,
+ * such as chunked or oversized bodies, are counted as skipped.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cart.capture", name = "enabled", havingValue = "true")
+public class TrafficRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficRecorder.class);
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final CaptureProperties properties;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private CaptureFile.Writer writer;
+    private Thread writerThread;
+    private volatile boolean running;
+    private long written;
+
+    public TrafficRecorder(CaptureProperties properties) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        writer = CaptureFile.newWriter(properties.file(), CaptureFile.Kind.TRAFFIC);
+        running = true;
+        writerThread = new Thread(this::drain, "traffic-capture");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Capturing SOAP and REST traffic to {}", properties.file().toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        writerThread.join();
+        writer.close();
+        log.info("Traffic capture stopped: {} requests written, {} dropped, {} skipped",
+            written, dropped.get(), skipped.get());
+    }
+
+    /**
+     * @return microseconds from the start of the capture to the given System.nanoTime value
+     */
+    long offsetMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos - startNanos);
+    }
+
+    int maxBodyBytes() {
+        return properties.maxBodyBytes();
+    }
+
+    /**
+     * Queue a request for writing without blocking
+     */
+    void record(CapturedRequest request) {
+        if (!queue.offer(request) && dropped.getAndIncrement() == 0) {
+            log.warn("Traffic capture queue is full; dropping requests");
+        }
+    }
+
+    /**
+     * Count a request that passed through without being recorded
+     */
+    void skip() {
+        if (skipped.getAndIncrement() == 0) {
+            log.warn("Skipping requests with chunked or oversized bodies; the capture will not include them");
+        }
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+
+    long skippedCount() {
+        return skipped.get();
+    }
+
+    private void drain() {
+        List<CapturedRequest> batch = new ArrayList<>();
+        long lastFlush = System.nanoTime();
+        try {
+            while (running || !queue.isEmpty()) {
+                CapturedRequest first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    for (CapturedRequest request : batch) {
+                        writer.write(request);
+                    }
+                    written += batch.size();
+                    batch.clear();
+                }
+                if (System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                    writer.flush();
+                    lastFlush = System.nanoTime();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Traffic capture failed; no further requests will be written", e);
+            running = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
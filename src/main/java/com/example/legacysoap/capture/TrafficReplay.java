@@ -0,0 +1,295 @@
+package com.example.legacysoap.capture;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Replays a traffic capture against a running LegacySoapApplication and compares two replays.
+ * <p>
+ * {@code replay <capture> <base-url> <results> [speed]} sends every captured request at its captured
+ * offset divided by speed (1 = original timing, 2 = twice as fast, 0 = as fast as possible), keeping
+ * requests that overlapped in the capture overlapping, and writes one result per request. Requests are
+ * captured as they complete, so they are put back in start order first (see {@link StartOrder}).
+ * Start the application with empty carts before each replay so that responses are deterministic.
+ * <p>
+ * {@code compare <results-a> <results-b>} reports requests whose status or response body differ
+ * and the latency distribution of each operation in both replays, e.g. before and after a change.
+ */
+public final class TrafficReplay {
+
+    private static final int MAX_IN_FLIGHT = 256;
+    private static final int REORDER_WINDOW = 10_000;
+    private static final int MAX_REPORTED_MISMATCHES = 10;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private TrafficReplay() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 4 && args.length <= 5 && args[0].equals("replay")) {
+            double speed = args.length == 5 ? Double.parseDouble(args[4]) : 1.0;
+            replay(Path.of(args[1]), URI.create(args[2]), Path.of(args[3]), speed);
+        } else if (args.length == 3 && args[0].equals("compare")) {
+            compare(Path.of(args[1]), Path.of(args[2]));
+        } else {
+            System.err.println("Usage: TrafficReplay replay <capture> <base-url> <results> [speed]");
+            System.err.println("       TrafficReplay compare <results-a> <results-b>");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Send every captured request to the base URL on the captured schedule and write the results
+     * @param speed multiple of the captured rate, or 0 to send as fast as possible
+     */
+    public static void replay(Path capture, URI baseUrl, Path results, double speed)
+            throws IOException, InterruptedException {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Speed cannot be negative");
+        }
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        long sent = 0;
+        long start = System.nanoTime();
+
+        try (CaptureFile.Reader reader = CaptureFile.newReader(capture, CaptureFile.Kind.TRAFFIC);
+             CaptureFile.Writer writer = CaptureFile.newWriter(results, CaptureFile.Kind.RESULTS)) {
+            StartOrder requests = new StartOrder(reader, REORDER_WINDOW);
+            long firstOffset = -1;
+            for (CapturedRequest request; (request = requests.next()) != null; sent++) {
+                if (firstOffset < 0) {
+                    firstOffset = request.offsetMicros();
+                }
+                long elapsed = Math.max(0, request.offsetMicros() - firstOffset);
+                long due = speed == 0 ? System.nanoTime()
+                    : start + (long) (TimeUnit.MICROSECONDS.toNanos(elapsed) / speed);
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                inFlight.acquire();
+                send(client, baseUrl, request, sent, due, writer, inFlight);
+            }
+            inFlight.acquire(MAX_IN_FLIGHT);
+        }
+        double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.printf("Replayed %,d requests in %.1f s (%,.0f requests/s) to %s%n",
+            sent, seconds, sent / seconds, baseUrl);
+        List<ReplayResult[]> runs = new ArrayList<>();
+        runs.add(readResults(results));
+        printLatencies(runs, List.of("replay"));
+    }
+
+    /**
+     * Reads a capture in start order. The capture filter writes each request when it completes, so
+     * a slow request lands after requests that started later; holding the next window of requests
+     * in a heap puts them back in order unless one was overtaken by more than the window.
+     */
+    static final class StartOrder {
+
+        private record Pending(CapturedRequest request, long sequence) {}
+
+        private final CaptureFile.Reader reader;
+        private final int window;
+        private final PriorityQueue<Pending> pending = new PriorityQueue<>(
+            Comparator.comparingLong((Pending p) -> p.request().offsetMicros()).thenComparingLong(Pending::sequence));
+        private long read;
+
+        StartOrder(CaptureFile.Reader reader, int window) {
+            this.reader = reader;
+            this.window = window;
+        }
+
+        /**
+         * @return the request with the smallest offset in the window, or null at the end of the capture
+         */
+        CapturedRequest next() throws IOException {
+            while (pending.size() < window) {
+                CapturedRequest request = reader.readRequest();
+                if (request == null) {
+                    break;
+                }
+                pending.add(new Pending(request, read++));
+            }
+            Pending next = pending.poll();
+            return next == null ? null : next.request();
+        }
+    }
+
+    private static void send(HttpClient client, URI baseUrl, CapturedRequest request, long index, long due,
+                             CaptureFile.Writer writer, Semaphore inFlight) {
+        String target = request.path() + (request.query() != null ? "?" + request.query() : "");
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(target))
+            .timeout(REQUEST_TIMEOUT)
+            .method(request.method(), request.body().length > 0
+                ? HttpRequest.BodyPublishers.ofByteArray(request.body())
+                : HttpRequest.BodyPublishers.noBody());
+        if (request.contentType() != null) {
+            builder.header("Content-Type", request.contentType());
+        }
+        if (request.soapAction() != null) {
+            builder.header("SOAPAction", request.soapAction());
+        }
+
+        long sentAt = System.nanoTime();
+        client.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((response, failure) -> {
+                long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentAt);
+                int status = 0;
+                long checksum = 0;
+                if (response != null) {
+                    CRC32C crc = new CRC32C();
+                    crc.update(response.body());
+                    status = response.statusCode();
+                    checksum = crc.getValue();
+                }
+                ReplayResult result = new ReplayResult(index, request.operation(), status, latency,
+                    TimeUnit.NANOSECONDS.toMicros(Math.max(0, sentAt - due)), checksum);
+                try {
+                    synchronized (writer) {
+                        writer.write(result);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Cannot write result " + index + ": " + e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+    }
+
+    /**
+     * Report differing responses and compare latency distributions of two replays of the same capture
+     */
+    public static void compare(Path resultsA, Path resultsB) throws IOException {
+        ReplayResult[] a = readResults(resultsA);
+        ReplayResult[] b = readResults(resultsB);
+        Comparison comparison = compareResults(a, b);
+        if (comparison.onlyInA() > 0 || comparison.onlyInB() > 0) {
+            System.out.printf("Results missing from one replay: %,d only in A, %,d only in B%n",
+                comparison.onlyInA(), comparison.onlyInB());
+        }
+        System.out.printf("%,d of %,d responses differ%n", comparison.mismatches(), comparison.compared());
+        printLatencies(List.of(a, b), List.of("A", "B"));
+    }
+
+    /**
+     * Counts from pairing two replays' results by request index
+     * @param compared requests with a result in both replays
+     * @param mismatches compared requests whose status or body differ
+     * @param onlyInA requests with a result only in the first replay
+     * @param onlyInB requests with a result only in the second replay
+     */
+    record Comparison(long compared, long mismatches, long onlyInA, long onlyInB) {}
+
+    /**
+     * Pair results by request index, so a result missing from one replay does not shift the rest,
+     * printing the first differing requests
+     * @param a results ordered by index
+     * @param b results ordered by index
+     */
+    static Comparison compareResults(ReplayResult[] a, ReplayResult[] b) {
+        long compared = 0;
+        long mismatches = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            int order = Long.compare(a[i].index(), b[j].index());
+            if (order < 0) {
+                i++;
+            } else if (order > 0) {
+                j++;
+            } else {
+                compared++;
+                ReplayResult x = a[i++];
+                ReplayResult y = b[j++];
+                if ((x.status() != y.status() || x.bodyChecksum() != y.bodyChecksum())
+                        && ++mismatches <= MAX_REPORTED_MISMATCHES) {
+                    System.out.printf("Request %d (%s) differs: status %d vs %d, body %08x vs %08x%n",
+                        x.index(), x.operation(), x.status(), y.status(), x.bodyChecksum(), y.bodyChecksum());
+                }
+            }
+        }
+        return new Comparison(compared, mismatches, a.length - compared, b.length - compared);
+    }
+
+    /**
+     * Read a results file ordered by request index
+     */
+    static ReplayResult[] readResults(Path results) throws IOException {
+        List<ReplayResult> list = new ArrayList<>();
+        try (CaptureFile.Reader reader = CaptureFile.newReader(results, CaptureFile.Kind.RESULTS)) {
+            for (ReplayResult result; (result = reader.readResult()) != null; ) {
+                list.add(result);
+            }
+        }
+        ReplayResult[] sorted = list.toArray(new ReplayResult[0]);
+        Arrays.sort(sorted, (x, y) -> Long.compare(x.index(), y.index()));
+        return sorted;
+    }
+
+    private static void printLatencies(List<ReplayResult[]> runs, List<String> names) {
+        Set<String> operations = new TreeSet<>();
+        List<Map<String, long[]>> latencies = new ArrayList<>();
+        for (ReplayResult[] run : runs) {
+            Map<String, List<Long>> byOperation = new TreeMap<>();
+            long lag = 0;
+            long failed = 0;
+            for (ReplayResult result : run) {
+                byOperation.computeIfAbsent("all", k -> new ArrayList<>()).add(result.latencyMicros());
+                byOperation.computeIfAbsent(result.operation(), k -> new ArrayList<>()).add(result.latencyMicros());
+                lag = Math.max(lag, result.lagMicros());
+                failed += result.status() == 0 ? 1 : 0;
+            }
+            if (failed > 0 || lag > 1000) {
+                System.out.printf("%s: %,d requests failed, sent up to %,d us late%n",
+                    names.get(latencies.size()), failed, lag);
+            }
+            Map<String, long[]> sorted = new TreeMap<>();
+            byOperation.forEach((operation, values) -> {
+                long[] array = values.stream().mapToLong(Long::longValue).sorted().toArray();
+                sorted.put(operation, array);
+            });
+            operations.addAll(sorted.keySet());
+            latencies.add(sorted);
+        }
+
+        System.out.printf("%-28s %4s %10s %10s %10s %10s %10s%n", "operation (us)", "run", "count", "p50", "p90",
+            "p99", "max");
+        for (String operation : operations) {
+            for (int run = 0; run < latencies.size(); run++) {
+                long[] values = latencies.get(run).getOrDefault(operation, new long[0]);
+                System.out.printf("%-28s %4s %,10d %,10d %,10d %,10d %,10d%n", operation, names.get(run),
+                    values.length, percentile(values, 50), percentile(values, 90), percentile(values, 99),
+                    percentile(values, 100));
+            }
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.legacysoap.client;
+
+import com.example.legacysoap.dto.CartItem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.legacysoap.binary.BinaryCartProtocol.*;
+
+/**
+ * Client for the binary cart protocol served by BinaryCartServer.
+ * Holds one blocking connection and is not thread-safe; use one instance per thread.
+ * {@link #addItems(String, List)} pipelines its requests instead of waiting for each response.
+ */
+public class BinaryCartClient implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private int nextRequestId;
+    private int expectedRequestId;
+
+    public BinaryCartClient(String host, int port) {
+        try {
+            this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+            this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to connect to " + host + ":" + port, e);
+        }
+        in.flip();
+    }
+
+    /**
+     * Add item to a cart or increment existing quantity
+     * @return CartItem with updated quantity
+     */
+    public CartItem addItem(String cartId, String productId, int quantity) {
+        writeAddItem(cartId, productId, quantity);
+        flush();
+        return new CartItem(productId, expectOk(readResponse()).getInt());
+    }
+
+    /**
+     * Add several items to a cart, pipelining the requests.
+     * If an item is rejected, the rest of its batch is still applied and read, so the connection
+     * stays usable, but no further batches are sent.
+     * @return CartItem with updated quantity for each item, in order
+     * @throws IllegalArgumentException for the first rejected item
+     */
+    public List<CartItem> addItems(String cartId, List<CartItem> items) {
+        List<CartItem> results = new ArrayList<>(items.size());
+        int sent = 0;
+        while (sent < items.size()) {
+            // Send a buffer's worth, then collect those responses, so neither side's socket buffer can fill up
+            int batchStart = sent;
+            while (sent < items.size() && out.remaining() >= requestSize(cartId, items.get(sent).productId())) {
+                CartItem item = items.get(sent++);
+                writeAddItem(cartId, item.productId(), item.quantity());
+            }
+            if (sent == batchStart) {
+                CartItem item = items.get(sent++);
+                writeAddItem(cartId, item.productId(), item.quantity());
+            }
+            flush();
+            RuntimeException failure = null;
+            for (int i = batchStart; i < sent; i++) {
+                ByteBuffer response = readResponse();
+                if (failure != null) {
+                    continue;
+                }
+                try {
+                    results.add(new CartItem(items.get(i).productId(), expectOk(response).getInt()));
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Get all items of a cart
+     * @return List of cart items
+     */
+    public List<CartItem> getCartItems(String cartId) {
+        byte[] cart = encode(cartId);
+        beginRequest(GET_CART, sizeOf(cart));
+        putString(out, cart);
+        flush();
+        ByteBuffer response = expectOk(readResponse());
+        int count = response.getInt();
+        List<CartItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new CartItem(getString(response), response.getInt()));
+        }
+        return items;
+    }
+
+    /**
+     * Update quantity of existing item
+     * @return Optional CartItem if product exists
+     */
+    public Optional<CartItem> updateQuantity(String cartId, String productId, int quantity) {
+        byte[] cart = encode(cartId);
+        byte[] product = encode(productId);
+        beginRequest(UPDATE_QUANTITY, sizeOf(cart) + sizeOf(product) + Integer.BYTES);
+        putString(out, cart);
+        putString(out, product);
+        out.putInt(quantity);
+        flush();
+        ByteBuffer response = readResponse();
+        if (response.get(response.position() - 1) == STATUS_NOT_FOUND) {
+            return Optional.empty();
+        }
+        return Optional.of(new CartItem(productId, expectOk(response).getInt()));
+    }
+
+    /**
+     * Remove item from a cart
+     * @return true if item was removed, false if not found
+     */
+    public boolean removeItem(String cartId, String productId) {
+        byte[] cart = encode(cartId);
+        byte[] product = encode(productId);
+        beginRequest(REMOVE_ITEM, sizeOf(cart) + sizeOf(product));
+        putString(out, cart);
+        putString(out, product);
+        flush();
+        ByteBuffer response = readResponse();
+        if (response.get(response.position() - 1) == STATUS_NOT_FOUND) {
+            return false;
+        }
+        expectOk(response);
+        return true;
+    }
+
+    /**
+     * Remove a cart
+     */
+    public void clearCart(String cartId) {
+        byte[] cart = encode(cartId);
+        beginRequest(CLEAR_CART, sizeOf(cart));
+        putString(out, cart);
+        flush();
+        expectOk(readResponse());
+    }
+
+    /**
+     * Get item count and total quantity of a cart
+     * @return CartTotals of the cart
+     */
+    public CartTotals getTotals(String cartId) {
+        byte[] cart = encode(cartId);
+        beginRequest(GET_TOTALS, sizeOf(cart));
+        putString(out, cart);
+        flush();
+        ByteBuffer response = expectOk(readResponse());
+        return new CartTotals(response.getInt(), response.getInt());
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int requestSize(String cartId, String productId) {
+        return LENGTH_BYTES + HEADER_BYTES + 2 * Short.BYTES + cartId.length() * 3 + productId.length() * 3 + Integer.BYTES;
+    }
+
+    private void writeAddItem(String cartId, String productId, int quantity) {
+        byte[] cart = encode(cartId);
+        byte[] product = encode(productId);
+        beginRequest(ADD_ITEM, sizeOf(cart) + sizeOf(product) + Integer.BYTES);
+        putString(out, cart);
+        putString(out, product);
+        out.putInt(quantity);
+    }
+
+    private void beginRequest(byte opcode, int payloadBytes) {
+        int frameBytes = LENGTH_BYTES + HEADER_BYTES + payloadBytes;
+        if (frameBytes > BUFFER_SIZE) {
+            throw new IllegalArgumentException("Request exceeds " + BUFFER_SIZE + " bytes");
+        }
+        if (out.remaining() < frameBytes) {
+            flush();
+        }
+        out.putInt(HEADER_BYTES + payloadBytes).putInt(nextRequestId++).put(opcode);
+    }
+
+    private void flush() {
+        out.flip();
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out.clear();
+        }
+    }
+
+    /**
+     * Read the next response frame
+     * @return buffer positioned after the status byte and limited to the frame
+     */
+    private ByteBuffer readResponse() {
+        fill(LENGTH_BYTES);
+        int length = in.getInt();
+        if (length < HEADER_BYTES) {
+            throw new IllegalStateException("Invalid response length " + length);
+        }
+        if (length > in.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(length);
+            larger.put(in).flip();
+            in = larger;
+        }
+        fill(length);
+        ByteBuffer frame = in.slice();
+        frame.limit(length);
+        in.position(in.position() + length);
+
+        int requestId = frame.getInt();
+        if (requestId != expectedRequestId++) {
+            throw new IllegalStateException("Unexpected response for request " + requestId);
+        }
+        frame.get();
+        return frame;
+    }
+
+    private void fill(int bytes) {
+        if (in.remaining() >= bytes) {
+            return;
+        }
+        in.compact();
+        try {
+            while (in.position() < bytes) {
+                if (channel.read(in) < 0) {
+                    throw new IOException("Connection closed by server");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            in.flip();
+        }
+    }
+
+    private static ByteBuffer expectOk(ByteBuffer response) {
+        byte status = response.get(response.position() - 1);
+        return switch (status) {
+            case STATUS_OK -> response;
+            case STATUS_INVALID_REQUEST -> throw new IllegalArgumentException(getString(response));
+            case STATUS_NOT_FOUND -> throw new IllegalStateException("Not found");
+            default -> throw new IllegalStateException("Server error: " + getString(response));
+        };
+    }
+
+    /**
+     * Item count and total quantity of a cart
+     */
+    public record CartTotals(int totalItems, int totalQuantity) {}
+}
@@ -0,0 +1,32 @@
+package com.example.legacysoap.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Binary cart protocol listener settings bound from cart.binary.* properties
+ * @param enabled whether the listener is started
+ * @param port TCP port to listen on, 0 for an ephemeral port
+ * @param ioThreads number of selector threads, 0 for one per available processor
+ * @param bufferSize per-connection direct buffer size, which also caps the request frame size
+ */
+@ConfigurationProperties(prefix = "cart.binary")
+public record BinaryProtocolProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("9091") int port,
+    @DefaultValue("0") int ioThreads,
+    @DefaultValue("65536") int bufferSize
+) {
+
+    public BinaryProtocolProperties {
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535");
+        }
+        if (ioThreads < 0) {
+            throw new IllegalArgumentException("I/O threads cannot be negative");
+        }
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("Buffer size must be at least 1024 bytes");
+        }
+    }
+}
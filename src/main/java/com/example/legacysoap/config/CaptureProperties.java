@@ -0,0 +1,31 @@
+package com.example.legacysoap.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * Traffic capture settings bound from cart.capture.* properties
+ * @param enabled whether /ws and /api/v1/cart requests are recorded
+ * @param file capture file, replaced on every start
+ * @param maxBodyBytes requests with larger bodies are not recorded
+ * @param queueCapacity requests waiting to be written; requests beyond it are dropped, never delayed
+ */
+@ConfigurationProperties(prefix = "cart.capture")
+public record CaptureProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("traffic.cap") Path file,
+    @DefaultValue("65536") int maxBodyBytes,
+    @DefaultValue("10000") int queueCapacity
+) {
+
+    public CaptureProperties {
+        if (maxBodyBytes < 0) {
+            throw new IllegalArgumentException("Max body bytes cannot be negative");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.legacysoap.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Cart expiry settings bound from cart.expiry.* properties
+ * @param enabled whether carts expire at all
+ * @param idleTimeout how long a cart may go without being accessed
+ * @param maxLifetime how long a cart may live regardless of activity
+ * @param tick resolution of the timing wheel
+ */
+@ConfigurationProperties(prefix = "cart.expiry")
+public record CartExpiryProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("30m") Duration idleTimeout,
+    @DefaultValue("24h") Duration maxLifetime,
+    @DefaultValue("1s") Duration tick
+) {
+
+    public CartExpiryProperties {
+        if (enabled && (idleTimeout.isNegative() || idleTimeout.isZero()
+                || maxLifetime.isNegative() || maxLifetime.isZero())) {
+            throw new IllegalArgumentException("Cart expiry timeouts must be positive");
+        }
+        if (enabled && (tick.isNegative() || tick.isZero())) {
+            throw new IllegalArgumentException("Cart expiry tick must be positive");
+        }
+    }
+
+    /**
+     * Settings that keep carts until they are cleared
+     * @return disabled expiry properties
+     */
+    public static CartExpiryProperties disabled() {
+        return new CartExpiryProperties(false, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.legacysoap.config;
+
+import com.example.legacysoap.cache.CartResponseCache;
+import com.example.legacysoap.cache.CartResponseCacheFilter;
+import com.example.legacysoap.service.CartService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cart read response cache, registered only for the cart read endpoints
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cart.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public CartResponseCache cartResponseCache(ResponseCacheProperties properties) {
+        return new CartResponseCache(properties.maxSize().toBytes(), properties.gzip(),
+            properties.gzipMinSize().toBytes());
+    }
+
+    @Bean
+    public FilterRegistrationBean<CartResponseCacheFilter> cartResponseCacheFilter(CartService cartService,
+                                                                                  CartResponseCache cache) {
+        FilterRegistrationBean<CartResponseCacheFilter> registration =
+            new FilterRegistrationBean<>(new CartResponseCacheFilter(cartService, cache));
+        registration.addUrlPatterns("/api/v1/cart", "/ws", "/ws/*");
+        registration.setOrder(CartResponseCacheFilter.ORDER);
+        return registration;
+    }
+}
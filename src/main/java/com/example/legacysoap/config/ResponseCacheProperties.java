@@ -0,0 +1,27 @@
+package com.example.legacysoap.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Cart read response cache settings bound from cart.response-cache.* properties
+ * @param enabled whether serialized cart responses are cached
+ * @param maxSize total size of cached response bodies; beyond it, responses not read since the last sweep are evicted
+ * @param gzip whether responses are cached and served gzip-compressed to clients that accept it
+ * @param gzipMinSize responses smaller than this are never compressed
+ */
+@ConfigurationProperties(prefix = "cart.response-cache")
+public record ResponseCacheProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("64MB") DataSize maxSize,
+    @DefaultValue("true") boolean gzip,
+    @DefaultValue("1KB") DataSize gzipMinSize
+) {
+
+    public ResponseCacheProperties {
+        if (maxSize.isNegative() || gzipMinSize.isNegative()) {
+            throw new IllegalArgumentException("Response cache sizes cannot be negative");
+        }
+    }
+}
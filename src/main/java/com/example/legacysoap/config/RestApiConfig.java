@@ -5,6 +5,7 @@ import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.Contact;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -19,8 +20,10 @@ public class RestApiConfig implements WebMvcConfigurer {
     /**
      * OpenAPI configuration for REST API documentation
      * Replaces WSDL generation from WebServiceConfig
+     * Lazy: only the API docs endpoint needs it, so it stays off the startup path
      */
     @Bean
+    @Lazy
     public OpenAPI cartApi() {
         return new OpenAPI()
             .info(new Info()
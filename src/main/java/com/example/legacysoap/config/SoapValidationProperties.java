@@ -0,0 +1,34 @@
+package com.example.legacysoap.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * SOAP payload validation settings bound from cart.soap.validation.* properties
+ * @param mode whether requests are validated against schema.xsd
+ * @param samplePercent share of requests validated in SAMPLED mode
+ */
+@ConfigurationProperties(prefix = "cart.soap.validation")
+public record SoapValidationProperties(
+    @DefaultValue("ALWAYS") Mode mode,
+    @DefaultValue("10") int samplePercent
+) {
+
+    public SoapValidationProperties {
+        if (samplePercent < 0 || samplePercent > 100) {
+            throw new IllegalArgumentException("Sample percent must be between 0 and 100");
+        }
+    }
+
+    /**
+     * Validation modes
+     */
+    public enum Mode {
+        /** Validate every request */
+        ALWAYS,
+        /** Validate a random share of requests */
+        SAMPLED,
+        /** Never validate */
+        OFF
+    }
+}
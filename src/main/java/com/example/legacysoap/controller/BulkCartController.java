@@ -0,0 +1,84 @@
+package com.example.legacysoap.controller;
+
+import com.example.legacysoap.bulk.BulkFormat;
+import com.example.legacysoap.bulk.CartBulkExporter;
+import com.example.legacysoap.bulk.CartBulkImporter;
+import com.example.legacysoap.bulk.ImportResult;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * REST Controller for bulk import and export of carts as NDJSON or CSV.
+ * Request and response bodies are streamed, never held in memory.
+ */
+@RestController
+@RequestMapping("/api/v1/cart/bulk")
+@Tag(name = "Shopping Cart Bulk", description = "Bulk import and export of carts")
+public class BulkCartController {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkCartController.class);
+
+    private final CartBulkImporter importer;
+    private final CartBulkExporter exporter;
+
+    public BulkCartController(CartBulkImporter importer, CartBulkExporter exporter) {
+        this.importer = importer;
+        this.exporter = exporter;
+    }
+
+    /**
+     * Import cart items from the request body, adding to existing quantities
+     */
+    @PostMapping("/import")
+    @Operation(
+        summary = "Import cart items",
+        description = "Adds one item per line of an NDJSON or CSV body; invalid lines are skipped and reported"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished"),
+        @ApiResponse(responseCode = "400", description = "Unknown format")
+    })
+    public ResponseEntity<ImportResult> importCarts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request) throws IOException {
+        BulkFormat bulkFormat = BulkFormat.fromName(format);
+        long start = System.nanoTime();
+        ImportResult result = importer.importFrom(Channels.newChannel(request.getInputStream()), bulkFormat);
+
+        log.info("Bulk import finished: format={}, imported={}, rejected={}, millis={}",
+            bulkFormat, result.imported(), result.rejected(), (System.nanoTime() - start) / 1_000_000);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Export every cart item
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Export cart items", description = "Streams one line per cart item as NDJSON or CSV")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed"),
+        @ApiResponse(responseCode = "400", description = "Unknown format")
+    })
+    public ResponseEntity<StreamingResponseBody> exportCarts(@RequestParam(defaultValue = "ndjson") String format) {
+        BulkFormat bulkFormat = BulkFormat.fromName(format);
+        StreamingResponseBody body = out -> {
+            long items = exporter.exportTo(Channels.newChannel(out), bulkFormat);
+            log.info("Bulk export finished: format={}, items={}", bulkFormat, items);
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(bulkFormat.mediaType()))
+            .body(body);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.legacysoap.controller;
 import com.example.legacysoap.dto.AddItemRequest;
 import com.example.legacysoap.dto.CartItem;
 import com.example.legacysoap.dto.CartItemResponse;
+import com.example.legacysoap.dto.CartResponse;
 import com.example.legacysoap.service.CartService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,6 +17,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST Controller for shopping cart operations using Java 17/Spring Boot 3.x
  * Refactored from SOAP ShoppingCartEndpoint.addItem method
@@ -71,4 +74,26 @@ public class CartController {
                 .body(new CartItemResponse(request.productId(), 0, false));
         }
     }
+
+    /**
+     * Get cart contents - Refactored from SOAP getCart method
+     * Original SOAP: @PayloadRoot(namespace = NAMESPACE_URI, localPart = "GetCartRequest")
+     * New REST: @GetMapping
+     */
+    @GetMapping
+    @Operation(summary = "Get cart", description = "Returns all items in the cart with item and quantity totals")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cart returned"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<CartResponse> getCart() {
+        try {
+            List<CartItem> items = cartService.getCartItems();
+            int totalQuantity = items.stream().mapToInt(CartItem::quantity).sum();
+            return ResponseEntity.ok(new CartResponse(items, items.size(), totalQuantity));
+        } catch (Exception e) {
+            log.error("Unexpected error reading cart", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
 }
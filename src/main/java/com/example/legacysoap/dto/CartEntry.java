@@ -0,0 +1,10 @@
+package com.example.legacysoap.dto;
+
+/**
+ * One item of one cart, as exchanged by bulk import and export, using Java 17 record
+ */
+public record CartEntry(
+    String cartId,
+    String productId,
+    int quantity
+) {}
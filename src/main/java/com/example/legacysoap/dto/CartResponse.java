@@ -0,0 +1,12 @@
+package com.example.legacysoap.dto;
+
+import java.util.List;
+
+/**
+ * Response DTO for the whole cart using Java 17 record
+ */
+public record CartResponse(
+    List<CartItem> items,
+    int totalItems,
+    int totalQuantity
+) {}
@@ -0,0 +1,194 @@
+package com.example.legacysoap.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Quantity of one product in a cart that adapts to contention.
+ * <p>
+ * Normally a single CAS counter. When many threads collide on it (a flash-sale product),
+ * it switches to striped cells so concurrent adds land on different cache lines, and
+ * switches back once the add rate drops, checked on later adds and on reads. Once allocated the
+ * cells are never discarded, so the total is always base plus every cell and no add is ever
+ * lost or counted twice.
+ * <p>
+ * Setting or removing a quantity replaces the holder in the cart and retires the old one.
+ * Retiring seals the base and every cell in turn, so each add lands either before the seal,
+ * and is part of the final quantity, or after it, and reports failure so it can be re-applied.
+ */
+final class AdaptiveQuantity {
+
+    /** CAS failures within one window that switch the counter to striped cells */
+    static final int INFLATE_FAILURES = 16;
+    /** Adds per second below which a striped counter switches back */
+    static final long DEFLATE_OPS_PER_SECOND = 10_000;
+
+    private static final long WINDOW_NANOS = 1_000_000;
+    private static final long SECOND_NANOS = 1_000_000_000;
+    /** Striped adds per cell between checks of whether to switch back */
+    private static final int DEFLATE_CHECK_INTERVAL = 16;
+    /** Set in the base and every cell once retired; quantities never come near it */
+    private static final long SEALED = 1L << 62;
+    // Each cell gets its own 128-byte region: slot 0 holds the quantity, slot 1 a rough add count
+    private static final int PAD = 16;
+    private static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicLong base;
+    private volatile AtomicLongArray cells;
+    private volatile boolean striped;
+    private volatile boolean retired;
+    private int retiredQuantity;
+    private volatile long windowStart = System.nanoTime();
+    // Heuristic counters; lost updates between threads are harmless
+    private int failures;
+    private long lastOps;
+
+    AdaptiveQuantity(int quantity) {
+        this.base = new AtomicLong(quantity);
+    }
+
+    /**
+     * Add to the quantity
+     * @param quantity the quantity to add
+     * @return false if this holder was retired, in which case the caller must re-apply the add to the cart
+     */
+    boolean add(int quantity) {
+        if (striped) {
+            return addToCell(quantity);
+        }
+        long current = base.get();
+        if ((current & SEALED) != 0) {
+            return false;
+        }
+        if (base.compareAndSet(current, current + quantity)) {
+            return true;
+        }
+        recordContention();
+        if (striped) {
+            return addToCell(quantity);
+        }
+        return (base.getAndAdd(quantity) & SEALED) == 0;
+    }
+
+    /**
+     * Get the exact quantity: the base plus every cell, or the final quantity once retired.
+     * Also checks whether a striped counter has gone quiet and can switch back.
+     * @return current quantity
+     */
+    int sum() {
+        if (retired) {
+            return retiredQuantity;
+        }
+        // Masked in case a concurrent retire has sealed some of the parts
+        long sum = base.get() & ~SEALED;
+        AtomicLongArray cells = this.cells;
+        if (cells != null) {
+            for (int i = 0; i < cells.length(); i += PAD) {
+                sum += cells.get(i) & ~SEALED;
+            }
+            if (striped) {
+                maybeDeflate(cells);
+            }
+        }
+        return (int) sum;
+    }
+
+    /**
+     * Mark this holder as replaced; later adds report failure so they can be re-applied
+     * @return the final quantity, including exactly the adds that reported success
+     */
+    synchronized int retire() {
+        if (!retired) {
+            long total = base.getAndUpdate(value -> value | SEALED);
+            AtomicLongArray cells = this.cells;
+            if (cells != null) {
+                for (int i = 0; i < cells.length(); i += PAD) {
+                    total += cells.getAndUpdate(i, value -> value | SEALED);
+                }
+            }
+            retiredQuantity = (int) total;
+            retired = true;
+        }
+        return retiredQuantity;
+    }
+
+    boolean isStriped() {
+        return striped;
+    }
+
+    /**
+     * Switch to striped cells, allocating them on first use
+     */
+    void inflate() {
+        if (cells == null) {
+            synchronized (this) {
+                if (retired) {
+                    // Cells allocated now would miss the seal
+                    return;
+                }
+                if (cells == null) {
+                    cells = new AtomicLongArray(STRIPES * PAD);
+                }
+            }
+        }
+        lastOps = addCount(cells);
+        windowStart = System.nanoTime();
+        striped = true;
+    }
+
+    private void recordContention() {
+        if (++failures < INFLATE_FAILURES) {
+            return;
+        }
+        failures = 0;
+        long now = System.nanoTime();
+        if (now - windowStart < WINDOW_NANOS) {
+            inflate();
+        } else {
+            windowStart = now;
+        }
+    }
+
+    private boolean addToCell(int quantity) {
+        AtomicLongArray cells = this.cells;
+        int cell = stripe() * PAD;
+        long previous = cells.getAndAdd(cell, quantity);
+        long ops = cells.getPlain(cell + 1) + 1;
+        cells.setPlain(cell + 1, ops);
+        if (ops % DEFLATE_CHECK_INTERVAL == 0) {
+            maybeDeflate(cells);
+        }
+        return (previous & SEALED) == 0;
+    }
+
+    /**
+     * Switch back to the single counter if the add rate since the last check, at least one window ago,
+     * is below DEFLATE_OPS_PER_SECOND
+     */
+    private void maybeDeflate(AtomicLongArray cells) {
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_NANOS) {
+            return;
+        }
+        long ops = addCount(cells);
+        if ((ops - lastOps) * SECOND_NANOS / elapsed < DEFLATE_OPS_PER_SECOND) {
+            striped = false;
+        }
+        lastOps = ops;
+        windowStart = now;
+    }
+
+    private static long addCount(AtomicLongArray cells) {
+        long ops = 0;
+        for (int i = 1; i < cells.length(); i += PAD) {
+            ops += cells.getPlain(i);
+        }
+        return ops;
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+    }
+}
@@ -1,20 +1,121 @@
 package com.example.legacysoap.service;
 
+import com.example.legacysoap.config.CartExpiryProperties;
+import com.example.legacysoap.dto.CartEntry;
 import com.example.legacysoap.dto.CartItem;
+import com.example.legacysoap.service.expiry.CartEvictionListener;
+import com.example.legacysoap.service.expiry.HierarchicalTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
 
 /**
- * Thread-safe cart service using Java 17 features
+ * Thread-safe cart service using Java 17 features.
+ * Holds one cart per cart ID; the single-cart methods operate on {@link #DEFAULT_CART_ID}.
+ * Carts expire after an idle timeout or a maximum lifetime, tracked by a timing wheel
+ * so that neither touching a cart nor expiring one requires scanning all carts.
+ * Item quantities are {@link AdaptiveQuantity} counters, so concurrent adds to the same
+ * product never lock and a flash-sale product is striped across cells while it is hot.
+ * Every cart has a version that changes after each mutation, so that serialized responses
+ * can be cached per version.
  */
 @Service
+@Lazy(false)
 public class CartService {
-    
-    private final ConcurrentHashMap<String, Integer> cart = new ConcurrentHashMap<>();
-    
+
+    public static final String DEFAULT_CART_ID = "default";
+
+    private static final Logger log = LoggerFactory.getLogger(CartService.class);
+    private static final int WHEEL_LEVELS = 4;
+    /** Source of cart versions; unique across carts, so a recreated cart never repeats a version */
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final ConcurrentHashMap<String, Cart> carts = new ConcurrentHashMap<>();
+    private final boolean expiryEnabled;
+    private final long idleNanos;
+    private final long lifetimeNanos;
+    private final long tickNanos;
+    private final List<CartEvictionListener> evictionListeners;
+    private final LongSupplier clock;
+    private final HierarchicalTimingWheel<Cart> wheel;
+    private volatile ScheduledExecutorService expiryExecutor;
+
+    /**
+     * Create a service whose carts never expire
+     */
+    public CartService() {
+        this(CartExpiryProperties.disabled(), List.of(), System::nanoTime);
+    }
+
+    @Autowired
+    public CartService(CartExpiryProperties expiry, ObjectProvider<CartEvictionListener> evictionListeners) {
+        this(expiry, evictionListeners.orderedStream().toList(), System::nanoTime);
+    }
+
+    CartService(CartExpiryProperties expiry, List<CartEvictionListener> evictionListeners, LongSupplier clock) {
+        this.expiryEnabled = expiry.enabled();
+        this.idleNanos = expiry.idleTimeout().toNanos();
+        this.lifetimeNanos = expiry.maxLifetime().toNanos();
+        this.tickNanos = expiry.tick().toNanos();
+        this.evictionListeners = List.copyOf(evictionListeners);
+        this.clock = clock;
+        this.wheel = expiryEnabled ? new HierarchicalTimingWheel<>(tickNanos, WHEEL_LEVELS, clock.getAsLong()) : null;
+    }
+
+    /**
+     * Start the background thread that advances the expiry wheel
+     */
+    @PostConstruct
+    public void start() {
+        if (!expiryEnabled || expiryExecutor != null) {
+            return;
+        }
+        expiryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryExecutor.scheduleAtFixedRate(this::expireSafely, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stop the expiry thread after delivering pending eviction notifications; remaining carts are kept as they are
+     */
+    @PreDestroy
+    public void stop() {
+        ScheduledExecutorService executor = expiryExecutor;
+        if (executor == null) {
+            return;
+        }
+        expiryExecutor = null;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Add item to cart or increment existing quantity
      * @param productId the product identifier
@@ -23,27 +124,126 @@ public class CartService {
      * @throws IllegalArgumentException if quantity is not positive
      */
     public CartItem addItem(String productId, int quantity) {
+        return addItem(DEFAULT_CART_ID, productId, quantity);
+    }
+
+    /**
+     * Add item to the given cart, creating the cart if needed
+     * @param cartId the cart identifier
+     * @param productId the product identifier
+     * @param quantity the quantity to add
+     * @return CartItem with updated quantity
+     * @throws IllegalArgumentException if quantity is not positive
+     */
+    public CartItem addItem(String cartId, String productId, int quantity) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
         if (productId == null || productId.trim().isEmpty()) {
             throw new IllegalArgumentException("Product ID cannot be null or empty");
         }
-        
-        int newQuantity = cart.merge(productId, quantity, Integer::sum);
-        return new CartItem(productId, newQuantity);
+
+        while (true) {
+            Cart cart = liveCart(cartId, true);
+            AdaptiveQuantity added = add(cart, productId, quantity);
+            cart.changed();
+            if (stillMapped(cart)) {
+                return new CartItem(productId, added == null ? quantity : added.sum());
+            }
+        }
+    }
+
+    /**
+     * Add many items in one call, e.g. from a bulk import.
+     * The cart is looked up once per run of consecutive entries for the same cart
+     * and no per-item result is built.
+     * @param entries the items to add; every entry is validated before any is applied
+     * @throws IllegalArgumentException if any quantity is not positive or cart or product ID is empty
+     */
+    public void addItems(List<CartEntry> entries) {
+        for (CartEntry entry : entries) {
+            if (entry.cartId() == null || entry.cartId().trim().isEmpty()) {
+                throw new IllegalArgumentException("Cart ID cannot be null or empty");
+            }
+            if (entry.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            if (entry.productId() == null || entry.productId().trim().isEmpty()) {
+                throw new IllegalArgumentException("Product ID cannot be null or empty");
+            }
+        }
+
+        int runStart = 0;
+        while (runStart < entries.size()) {
+            String cartId = entries.get(runStart).cartId();
+            int runEnd = runStart + 1;
+            while (runEnd < entries.size() && cartId.equals(entries.get(runEnd).cartId())) {
+                runEnd++;
+            }
+            Cart cart;
+            do {
+                cart = liveCart(cartId, true);
+                for (CartEntry entry : entries.subList(runStart, runEnd)) {
+                    add(cart, entry.productId(), entry.quantity());
+                }
+                cart.changed();
+            } while (!stillMapped(cart));
+            runStart = runEnd;
+        }
+    }
+
+    /**
+     * Visit every cart with a snapshot of its items, e.g. for a bulk export.
+     * Carts created or removed during the visit may or may not be seen.
+     * @param visitor receives each cart ID and its items
+     */
+    public void forEachCart(BiConsumer<String, List<CartItem>> visitor) {
+        carts.forEach((cartId, cart) -> {
+            List<CartItem> items = snapshot(cart);
+            if (!items.isEmpty()) {
+                visitor.accept(cartId, items);
+            }
+        });
     }
-    
+
     /**
      * Get all cart items
      * @return List of cart items
      */
     public List<CartItem> getCartItems() {
-        return cart.entrySet().stream()
-            .map(entry -> new CartItem(entry.getKey(), entry.getValue()))
-            .toList();
+        return getCartItems(DEFAULT_CART_ID);
     }
-    
+
+    /**
+     * Get all items of the given cart
+     * @param cartId the cart identifier
+     * @return List of cart items, empty if the cart does not exist
+     */
+    public List<CartItem> getCartItems(String cartId) {
+        Cart cart = liveCart(cartId, false);
+        return cart == null ? List.of() : snapshot(cart);
+    }
+
+    /**
+     * Get the version of the cart
+     * @return version of the cart's current contents
+     */
+    public long getCartVersion() {
+        return getCartVersion(DEFAULT_CART_ID);
+    }
+
+    /**
+     * Get the version of the given cart's contents, which changes after every mutation.
+     * Items read after this call are at least as new as the version; a response built from
+     * them can be cached under it. Counts as an access to the cart, like reading its items.
+     * @param cartId the cart identifier
+     * @return version of the cart's current contents, 0 if the cart does not exist
+     */
+    public long getCartVersion(String cartId) {
+        Cart cart = liveCart(cartId, false);
+        return cart == null ? 0 : cart.observeVersion();
+    }
+
     /**
      * Update quantity of existing item
      * @param productId the product identifier
@@ -51,44 +251,364 @@ public class CartService {
      * @return Optional CartItem if product exists
      */
     public Optional<CartItem> updateQuantity(String productId, int quantity) {
+        return updateQuantity(DEFAULT_CART_ID, productId, quantity);
+    }
+
+    /**
+     * Update quantity of existing item in the given cart
+     * @param cartId the cart identifier
+     * @param productId the product identifier
+     * @param quantity the new quantity
+     * @return Optional CartItem if product exists
+     */
+    public Optional<CartItem> updateQuantity(String cartId, String productId, int quantity) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
-        
-        return cart.containsKey(productId) 
-            ? Optional.of(new CartItem(productId, cart.put(productId, quantity)))
-            : Optional.empty();
+
+        while (true) {
+            Cart cart = liveCart(cartId, false);
+            AdaptiveQuantity previous = cart == null ? null : cart.items.replace(productId, new AdaptiveQuantity(quantity));
+            if (previous == null) {
+                return Optional.empty();
+            }
+            int previousQuantity = previous.retire();
+            cart.changed();
+            if (stillMapped(cart)) {
+                return Optional.of(new CartItem(productId, previousQuantity));
+            }
+        }
     }
-    
+
     /**
      * Remove item from cart
      * @param productId the product identifier
      * @return true if item was removed, false if not found
      */
     public boolean removeItem(String productId) {
-        return cart.remove(productId) != null;
+        return removeItem(DEFAULT_CART_ID, productId);
+    }
+
+    /**
+     * Remove item from the given cart
+     * @param cartId the cart identifier
+     * @param productId the product identifier
+     * @return true if item was removed, false if not found
+     */
+    public boolean removeItem(String cartId, String productId) {
+        while (true) {
+            Cart cart = liveCart(cartId, false);
+            AdaptiveQuantity previous = cart == null ? null : cart.items.remove(productId);
+            if (previous == null) {
+                return false;
+            }
+            previous.retire();
+            cart.changed();
+            if (stillMapped(cart)) {
+                return true;
+            }
+        }
     }
-    
+
     /**
      * Clear all items from cart
      */
     public void clearCart() {
-        cart.clear();
+        clearCart(DEFAULT_CART_ID);
     }
-    
+
+    /**
+     * Remove the given cart; eviction listeners are not notified
+     * @param cartId the cart identifier
+     */
+    public void clearCart(String cartId) {
+        Cart cart = carts.remove(cartId);
+        if (cart != null) {
+            cancelExpiry(cart);
+        }
+    }
+
     /**
      * Get total number of items in cart
      * @return total item count
      */
     public int getTotalItems() {
-        return cart.size();
+        return getTotalItems(DEFAULT_CART_ID);
     }
-    
+
+    /**
+     * Get total number of items in the given cart
+     * @param cartId the cart identifier
+     * @return total item count
+     */
+    public int getTotalItems(String cartId) {
+        Cart cart = liveCart(cartId, false);
+        return cart == null ? 0 : cart.items.size();
+    }
+
     /**
      * Get total quantity of all items
      * @return total quantity
      */
     public int getTotalQuantity() {
-        return cart.values().stream().mapToInt(Integer::intValue).sum();
+        return getTotalQuantity(DEFAULT_CART_ID);
+    }
+
+    /**
+     * Get total quantity of all items in the given cart
+     * @param cartId the cart identifier
+     * @return total quantity
+     */
+    public int getTotalQuantity(String cartId) {
+        Cart cart = liveCart(cartId, false);
+        return cart == null ? 0 : cart.items.values().stream().mapToInt(AdaptiveQuantity::sum).sum();
+    }
+
+    /**
+     * Get number of carts currently held
+     * @return live cart count
+     */
+    public int getCartCount() {
+        return carts.size();
+    }
+
+    /**
+     * Expire every cart whose deadline has passed.
+     * Called by the expiry thread once per tick.
+     */
+    void expireCarts() {
+        if (!expiryEnabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        List<Cart> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(now, due::add);
+            due.forEach(cart -> cart.timer = null);
+        }
+        for (Cart cart : due) {
+            boolean[] evicted = new boolean[1];
+            carts.computeIfPresent(cart.id, (id, current) -> {
+                if (current == cart && isExpired(cart, now)) {
+                    evicted[0] = true;
+                    return null;
+                }
+                return current;
+            });
+            if (evicted[0]) {
+                notifyEviction(cart, now);
+            } else if (carts.get(cart.id) == cart) {
+                // Touched since it was scheduled; wait for the new deadline
+                scheduleExpiry(cart);
+            }
+        }
+    }
+
+    private void expireSafely() {
+        try {
+            expireCarts();
+        } catch (RuntimeException e) {
+            log.error("Cart expiry pass failed", e);
+        }
+    }
+
+    /**
+     * Look up a cart and record the access.
+     * The common case is a lock-free read plus a coarse timestamp write; the map is only
+     * locked to create a cart or when the cart is close enough to its deadline to race the expiry thread.
+     */
+    private Cart liveCart(String cartId, boolean create) {
+        Cart cart = carts.get(cartId);
+        if (cart != null && !expiryEnabled) {
+            return cart;
+        }
+        long now = clock.getAsLong();
+        if (cart != null && deadline(cart) - now > 2 * tickNanos) {
+            cart.touch(now, tickNanos);
+            return cart;
+        }
+        if (cart == null && !create) {
+            return null;
+        }
+
+        Cart[] expired = new Cart[1];
+        boolean[] created = new boolean[1];
+        Cart live = carts.compute(cartId, (id, current) -> {
+            if (current != null && isExpired(current, now)) {
+                expired[0] = current;
+                current = null;
+            }
+            if (current == null) {
+                created[0] = create;
+                return create ? new Cart(id, now) : null;
+            }
+            current.touch(now, 0);
+            return current;
+        });
+        if (expired[0] != null) {
+            cancelExpiry(expired[0]);
+            notifyEvictionOnExpiryThread(expired[0], now);
+        }
+        if (created[0]) {
+            scheduleExpiry(live);
+        }
+        return live;
+    }
+
+    /**
+     * Add to a product's quantity
+     * @return the quantity holder that was added to, or null if a new one was created with the quantity
+     */
+    private static AdaptiveQuantity add(Cart cart, String productId, int quantity) {
+        while (true) {
+            AdaptiveQuantity current = cart.items.get(productId);
+            if (current == null) {
+                current = cart.items.putIfAbsent(productId, new AdaptiveQuantity(quantity));
+                if (current == null) {
+                    return null;
+                }
+            }
+            // Lock-free add; retry only if the quantity was replaced or removed concurrently
+            if (current.add(quantity)) {
+                return current;
+            }
+        }
+    }
+
+    private long deadline(Cart cart) {
+        return Math.min(cart.lastAccessNanos + idleNanos, cart.createdNanos + lifetimeNanos);
+    }
+
+    private boolean isExpired(Cart cart, long now) {
+        return expiryEnabled && now - deadline(cart) >= 0;
+    }
+
+    private void scheduleExpiry(Cart cart) {
+        if (!expiryEnabled) {
+            return;
+        }
+        synchronized (wheel) {
+            if (cart.timer == null) {
+                cart.timer = wheel.schedule(cart, deadline(cart));
+            }
+        }
+    }
+
+    private void cancelExpiry(Cart cart) {
+        if (!expiryEnabled) {
+            return;
+        }
+        synchronized (wheel) {
+            if (cart.timer != null) {
+                wheel.cancel(cart.timer);
+                cart.timer = null;
+            }
+        }
+    }
+
+    /**
+     * Whether a cart the caller just mutated is still the one mapped under its ID.
+     * The expiry thread snapshots a cart only after removing it, so if the cart is still mapped
+     * the mutation is either live or in the eviction snapshot. If not, the snapshot may have been
+     * taken before the mutation and the caller must apply it again to the current cart; near an
+     * expiry deadline a mutation can then show up both in the evicted snapshot and in the new cart,
+     * but never in neither.
+     */
+    private boolean stillMapped(Cart cart) {
+        return !expiryEnabled || carts.get(cart.id) == cart;
+    }
+
+    /**
+     * Notify listeners of a cart expired by a lookup, on the expiry thread rather than the caller's,
+     * which may be a request thread or a binary protocol selector. Runs inline if expiry was never started.
+     */
+    private void notifyEvictionOnExpiryThread(Cart cart, long now) {
+        ScheduledExecutorService executor = expiryExecutor;
+        if (executor != null && !evictionListeners.isEmpty()) {
+            try {
+                executor.execute(() -> notifyEviction(cart, now));
+                return;
+            } catch (RejectedExecutionException e) {
+                // Shutting down; notify on this thread instead
+            }
+        }
+        notifyEviction(cart, now);
+    }
+
+    private void notifyEviction(Cart cart, long now) {
+        CartEvictionListener.Cause cause = now - (cart.createdNanos + lifetimeNanos) >= 0
+            ? CartEvictionListener.Cause.LIFETIME
+            : CartEvictionListener.Cause.IDLE;
+        log.debug("Expiring cart: cartId={}, cause={}", cart.id, cause);
+        if (evictionListeners.isEmpty()) {
+            return;
+        }
+        List<CartItem> items = snapshot(cart);
+        for (CartEvictionListener listener : evictionListeners) {
+            try {
+                listener.onEviction(cart.id, items, cause);
+            } catch (RuntimeException e) {
+                log.warn("Cart eviction listener failed: cartId={}", cart.id, e);
+            }
+        }
+    }
+
+    private static List<CartItem> snapshot(Cart cart) {
+        return cart.items.entrySet().stream()
+            .map(entry -> new CartItem(entry.getKey(), entry.getValue().sum()))
+            .toList();
+    }
+
+    /**
+     * A single cart, its version and its expiry bookkeeping
+     */
+    private static final class Cart {
+        final String id;
+        final ConcurrentHashMap<String, AdaptiveQuantity> items = new ConcurrentHashMap<>();
+        final long createdNanos;
+        // Version shifted left by one; the low bit is set once a reader has observed the version
+        final AtomicLong versionState = new AtomicLong(VERSIONS.incrementAndGet() << 1);
+        volatile long lastAccessNanos;
+        // Guarded by the wheel's monitor
+        HierarchicalTimingWheel.Timer<Cart> timer;
+
+        Cart(String id, long now) {
+            this.id = id;
+            this.createdNanos = now;
+            this.lastAccessNanos = now;
+        }
+
+        /**
+         * Record an access, skipping the write when the stored time is within one tick
+         * so that busy carts do not bounce the cache line between cores
+         */
+        void touch(long now, long granularity) {
+            if (now - lastAccessNanos >= granularity) {
+                lastAccessNanos = now;
+            }
+        }
+
+        /**
+         * Read the version and mark it observed, in one atomic step
+         */
+        long observeVersion() {
+            while (true) {
+                long state = versionState.get();
+                if ((state & 1) != 0 || versionState.compareAndSet(state, state | 1)) {
+                    return state >>> 1;
+                }
+            }
+        }
+
+        /**
+         * Called after every mutation. Moves to a new version only if the current one has been
+         * observed, so writers to a cart nobody reads share no counter and never contend here.
+         */
+        void changed() {
+            long state = versionState.get();
+            while ((state & 1) != 0 && !versionState.compareAndSet(state, VERSIONS.incrementAndGet() << 1)) {
+                state = versionState.get();
+            }
+        }
     }
 }
@@ -0,0 +1,33 @@
+package com.example.legacysoap.service.expiry;
+
+import com.example.legacysoap.dto.CartItem;
+
+import java.util.List;
+
+/**
+ * Callback invoked when CartService expires a cart.
+ * Register as a Spring bean to persist or archive abandoned carts.
+ * Runs on the expiry thread once CartService has started, including for carts found expired
+ * when they are accessed, so a slow implementation delays other expiries but never a request.
+ */
+@FunctionalInterface
+public interface CartEvictionListener {
+
+    /**
+     * Called once per expired cart, after it has been removed
+     * @param cartId the cart identifier
+     * @param items final contents of the cart
+     * @param cause why the cart was expired
+     */
+    void onEviction(String cartId, List<CartItem> items, Cause cause);
+
+    /**
+     * Reason a cart was expired
+     */
+    enum Cause {
+        /** Not accessed within the idle timeout */
+        IDLE,
+        /** Reached its absolute lifetime regardless of activity */
+        LIFETIME
+    }
+}
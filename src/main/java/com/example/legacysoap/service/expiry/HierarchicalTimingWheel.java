@@ -0,0 +1,193 @@
+package com.example.legacysoap.service.expiry;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for scheduling cart expirations.
+ * Scheduling and cancelling are O(1); each expiration is O(1) amortized,
+ * because a timer is cascaded at most once per level on its way down.
+ * Not thread-safe - callers must serialize access to an instance.
+ *
+ * @param <T> payload carried by each timer
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickNanos;
+    private final int levels;
+    private final long maxSpanTicks;
+    private final Bucket<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Create a wheel anchored at the given time
+     * @param tickNanos resolution of the wheel in nanoseconds
+     * @param levels number of wheel levels, each 64 times coarser than the previous
+     * @param startNanos the current time in nanoseconds
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickNanos, int levels, long startNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        if (levels < 1 || levels * SLOT_BITS > 48) {
+            throw new IllegalArgumentException("Levels must be between 1 and 8");
+        }
+        this.tickNanos = tickNanos;
+        this.levels = levels;
+        this.maxSpanTicks = 1L << (levels * SLOT_BITS);
+        this.wheels = new Bucket[levels][SLOTS];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new Bucket<>();
+            }
+        }
+        this.currentTick = startNanos / tickNanos;
+    }
+
+    /**
+     * Schedule a payload to expire at the given time
+     * @param payload the payload handed back on expiry
+     * @param deadlineNanos the expiry time in nanoseconds
+     * @return Timer handle that can be cancelled
+     */
+    public Timer<T> schedule(T payload, long deadlineNanos) {
+        Timer<T> timer = new Timer<>(payload, Math.max(deadlineNanos / tickNanos, currentTick + 1));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Cancel a pending timer
+     * @param timer the timer to cancel
+     * @return true if the timer was pending, false if it already fired or was cancelled
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer.bucket == null) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Advance the wheel to the given time, handing every due payload to the consumer
+     * @param nowNanos the current time in nanoseconds
+     * @param onExpire receives each expired payload
+     */
+    public void advance(long nowNanos, Consumer<? super T> onExpire) {
+        long targetTick = nowNanos / tickNanos;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Bucket<T> bucket = wheels[0][(int) (currentTick & SLOT_MASK)];
+            Timer<T> timer;
+            while ((timer = bucket.poll()) != null) {
+                if (timer.expiryTick > currentTick) {
+                    // Parked beyond the wheel's span; not due yet
+                    place(timer);
+                } else {
+                    size--;
+                    onExpire.accept(timer.payload);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get number of pending timers
+     * @return pending timer count
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < levels; level++) {
+            long shift = (long) level * SLOT_BITS;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            Bucket<T> bucket = wheels[level][(int) ((currentTick >>> shift) & SLOT_MASK)];
+            Timer<T> timer;
+            while ((timer = bucket.poll()) != null) {
+                place(timer);
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long tick = Math.min(timer.expiryTick, currentTick + maxSpanTicks - 1);
+        long delta = tick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && delta >= 1L << ((level + 1) * SLOT_BITS)) {
+            level++;
+        }
+        wheels[level][(int) ((tick >>> (level * SLOT_BITS)) & SLOT_MASK)].add(timer);
+    }
+
+    /**
+     * Handle to a scheduled payload
+     */
+    public static final class Timer<T> {
+        private final T payload;
+        private final long expiryTick;
+        private Bucket<T> bucket;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T payload, long expiryTick) {
+            this.payload = payload;
+            this.expiryTick = expiryTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+            } else {
+                bucket.head = next;
+            }
+            if (next != null) {
+                next.prev = prev;
+            }
+            prev = null;
+            next = null;
+            bucket = null;
+        }
+    }
+
+    /**
+     * Intrusive doubly-linked list of timers sharing a slot
+     */
+    private static final class Bucket<T> {
+        private Timer<T> head;
+
+        void add(Timer<T> timer) {
+            timer.bucket = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+        }
+
+        Timer<T> poll() {
+            Timer<T> timer = head;
+            if (timer != null) {
+                timer.unlink();
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.legacysoap;
+
+import com.example.legacysoap.config.SoapValidationProperties.Mode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.net.URL;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the precompiled SOAP payload validator
+ */
+@DisplayName("PayloadSchemaValidator Tests")
+class PayloadSchemaValidatorTest {
+
+    private static final URL SCHEMA = PayloadSchemaValidatorTest.class.getClassLoader().getResource("schema.xsd");
+
+    private static StreamSource payload(String xml) {
+        return new StreamSource(new StringReader(xml));
+    }
+
+    @Test
+    @DisplayName("Should accept a valid payload")
+    void validate_shouldAcceptValidPayload() throws Exception {
+        PayloadSchemaValidator validator = new PayloadSchemaValidator(SCHEMA, Mode.ALWAYS, 100);
+
+        assertThat(validator.validate(payload("""
+            <AddItemRequest xmlns="http://example.com/shoppingcart">
+              <productId>PROD1</productId><quantity>2</quantity>
+            </AddItemRequest>"""))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should report errors for an invalid payload and stay reusable")
+    void validate_shouldRejectInvalidPayload() throws Exception {
+        PayloadSchemaValidator validator = new PayloadSchemaValidator(SCHEMA, Mode.ALWAYS, 100);
+
+        assertThat(validator.validate(payload("""
+            <AddItemRequest xmlns="http://example.com/shoppingcart">
+              <productId>PROD1</productId><quantity>many</quantity>
+            </AddItemRequest>"""))).isNotEmpty();
+        assertThat(validator.validate(payload("""
+            <RemoveItemRequest xmlns="http://example.com/shoppingcart">
+              <productId>PROD1</productId>
+            </RemoveItemRequest>"""))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should follow the configured mode")
+    void shouldValidate_shouldFollowMode() {
+        assertThat(new PayloadSchemaValidator(SCHEMA, Mode.ALWAYS, 0).shouldValidate()).isTrue();
+        assertThat(new PayloadSchemaValidator(SCHEMA, Mode.OFF, 100).shouldValidate()).isFalse();
+        assertThat(new PayloadSchemaValidator(SCHEMA, Mode.SAMPLED, 0).shouldValidate()).isFalse();
+        assertThat(new PayloadSchemaValidator(SCHEMA, Mode.SAMPLED, 100).shouldValidate()).isTrue();
+    }
+}
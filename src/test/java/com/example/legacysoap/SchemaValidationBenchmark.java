@@ -0,0 +1,99 @@
+package com.example.legacysoap;
+
+import com.example.legacysoap.config.SoapValidationProperties.Mode;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Per-request overhead of SOAP payload validation.
+ * Parses an AddItemRequest envelope to DOM, as SAAJ does, then times the validation step alone:
+ * the stock approach of one new Validator per request against PayloadSchemaValidator in each mode.
+ * Parsing the envelope is reported as the baseline the overhead should be compared with.
+ * <p>
+ * Not a JUnit test. Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.legacysoap.SchemaValidationBenchmark}
+ */
+public class SchemaValidationBenchmark {
+
+    private static final String ENVELOPE = """
+        <soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/"
+                          xmlns:sc="http://example.com/shoppingcart">
+          <soapenv:Header/>
+          <soapenv:Body>
+            <sc:AddItemRequest>
+              <sc:productId>PROD-12345</sc:productId>
+              <sc:quantity>3</sc:quantity>
+            </sc:AddItemRequest>
+          </soapenv:Body>
+        </soapenv:Envelope>""";
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        URL schemaLocation = SchemaValidationBenchmark.class.getClassLoader().getResource("schema.xsd");
+        byte[] envelope = ENVELOPE.getBytes(StandardCharsets.UTF_8);
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        DOMSource payload = new DOMSource(payloadOf(builder.parse(new ByteArrayInputStream(envelope))));
+
+        Schema schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schemaLocation);
+        PayloadSchemaValidator always = new PayloadSchemaValidator(schemaLocation, Mode.ALWAYS, 100);
+        PayloadSchemaValidator sampled = new PayloadSchemaValidator(schemaLocation, Mode.SAMPLED, 10);
+        PayloadSchemaValidator off = new PayloadSchemaValidator(schemaLocation, Mode.OFF, 0);
+        if (!always.validate(payload).isEmpty()) {
+            throw new IllegalStateException("Benchmark payload is not valid");
+        }
+
+        System.out.printf("%-36s %12s%n", "step", "ns/request");
+        report("parse envelope to DOM (baseline)", () -> builder.parse(new ByteArrayInputStream(envelope)));
+        report("new Validator per request (stock)", () -> schema.newValidator().validate(payload));
+        report("pooled validator, ALWAYS", () -> validate(always, payload));
+        report("pooled validator, SAMPLED 10%", () -> validate(sampled, payload));
+        report("OFF", () -> validate(off, payload));
+    }
+
+    private static void validate(PayloadSchemaValidator validator, DOMSource payload) throws Exception {
+        if (validator.shouldValidate() && !validator.validate(payload).isEmpty()) {
+            throw new IllegalStateException("Validation failed");
+        }
+    }
+
+    private static void report(String name, Step step) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            step.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            step.run();
+        }
+        System.out.printf("%-36s %,12d%n", name, (System.nanoTime() - start) / ITERATIONS);
+    }
+
+    private static Element payloadOf(Document envelope) {
+        Node body = envelope.getDocumentElement().getElementsByTagNameNS(
+            "http://schemas.xmlsoap.org/soap/envelope/", "Body").item(0);
+        for (Node child = body.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element element) {
+                return element;
+            }
+        }
+        throw new IllegalStateException("Empty SOAP body");
+    }
+}
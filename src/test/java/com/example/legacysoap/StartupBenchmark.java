@@ -0,0 +1,104 @@
+package com.example.legacysoap;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup benchmark: launches LegacySoapApplication in a fresh JVM and reports the time from
+ * process start to the first successfully served SOAP request, for the default configuration,
+ * the fast-startup profile and, when target/app-cds.jsa exists, fast-startup with the CDS archive.
+ * <p>
+ * Not a JUnit test. After {@code mvn -Pcds package}, run with:
+ * {@code java -Dstartup.classpath=target/legacy-soap-shopping-cart-0.0.1-SNAPSHOT.jar:$(cat target/cds-classpath.txt)
+ * -cp target/test-classes com.example.legacysoap.StartupBenchmark [runs]}
+ */
+public class StartupBenchmark {
+
+    private static final Path CDS_ARCHIVE = Path.of("target", "app-cds.jsa");
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final String classpath;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    StartupBenchmark(String classpath) {
+        this.classpath = classpath;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        StartupBenchmark benchmark = new StartupBenchmark(
+            System.getProperty("startup.classpath", System.getProperty("java.class.path")));
+
+        System.out.printf("%-24s %12s %12s%n", "mode", "min ms", "median ms");
+        benchmark.report("default", runs, List.of());
+        benchmark.report("fast-startup", runs, List.of("-Dspring.profiles.active=fast-startup"));
+        if (Files.exists(CDS_ARCHIVE)) {
+            benchmark.report("fast-startup + CDS", runs, List.of(
+                "-Dspring.profiles.active=fast-startup", "-XX:SharedArchiveFile=" + CDS_ARCHIVE));
+        } else {
+            System.out.println("No " + CDS_ARCHIVE + "; build it with mvn -Pcds package");
+        }
+    }
+
+    private void report(String mode, int runs, List<String> jvmArgs) throws Exception {
+        List<Long> millis = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            millis.add(timeToFirstRequest(jvmArgs));
+        }
+        Collections.sort(millis);
+        System.out.printf("%-24s %12d %12d%n", mode, millis.get(0), millis.get(millis.size() / 2));
+    }
+
+    private long timeToFirstRequest(List<String> jvmArgs) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-cp", classpath, LegacySoapApplication.class.getName(), "--server.port=" + port));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/ws"))
+            .header("Content-Type", "text/xml; charset=utf-8")
+            .POST(HttpRequest.BodyPublishers.ofString(StartupTrainingRun.GET_CART_ENVELOPE))
+            .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("No response within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.legacysoap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
+import org.springframework.xml.xsd.SimpleXsdSchema;
+import org.xmlunit.builder.DiffBuilder;
+import org.xmlunit.builder.Input;
+import org.xmlunit.diff.Diff;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the WSDL precomputed at build time is the one DefaultWsdl11Definition would build at startup
+ */
+@DisplayName("WsdlGenerator Tests")
+class WsdlGeneratorTest {
+
+    private static Diff diffWithBuiltDefinition(Input.Builder precomputed) throws Exception {
+        SimpleXsdSchema schema = new SimpleXsdSchema(new ClassPathResource("schema.xsd"));
+        schema.afterPropertiesSet();
+        DefaultWsdl11Definition definition = WebServiceConfig.buildWsdl11Definition(schema);
+        definition.afterPropertiesSet();
+        return DiffBuilder.compare(precomputed)
+            .withTest(definition.getSource())
+            .ignoreWhitespace()
+            .ignoreComments()
+            .checkForSimilar()
+            .build();
+    }
+
+    @Test
+    @DisplayName("Should match the built definition with the WSDL generated by the build")
+    void precomputedWsdl_shouldMatchBuiltDefinition() throws Exception {
+        ClassPathResource precomputed = new ClassPathResource(WebServiceConfig.PRECOMPUTED_WSDL);
+        assertThat(precomputed.exists())
+            .as("%s is written in the process-classes phase", WebServiceConfig.PRECOMPUTED_WSDL)
+            .isTrue();
+
+        Diff diff = diffWithBuiltDefinition(Input.fromURL(precomputed.getURL()));
+
+        assertThat(diff.hasDifferences()).as(diff.toString()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should write the WSDL under the output directory")
+    void main_shouldWriteWsdl(@TempDir Path outputDirectory) throws Exception {
+        WsdlGenerator.main(new String[] {outputDirectory.toString()});
+
+        Path written = outputDirectory.resolve(WebServiceConfig.PRECOMPUTED_WSDL);
+        Diff diff = diffWithBuiltDefinition(Input.fromFile(written.toFile()));
+
+        assertThat(diff.hasDifferences()).as(diff.toString()).isFalse();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.legacysoap.binary;
+
+import com.example.legacysoap.client.BinaryCartClient;
+import com.example.legacysoap.config.BinaryProtocolProperties;
+import com.example.legacysoap.dto.CartItem;
+import com.example.legacysoap.service.CartService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Round-trip tests for the binary cart protocol over a real socket
+ */
+@DisplayName("BinaryCartServer Tests")
+class BinaryCartServerTest {
+
+    private CartService cartService;
+    private BinaryCartServer server;
+    private BinaryCartClient client;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartService();
+        // Small buffers so that large responses and pipelined batches exercise growth and backpressure
+        server = new BinaryCartServer(cartService, new BinaryProtocolProperties(true, 0, 2, 1024));
+        server.start();
+        client = new BinaryCartClient("localhost", server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Should add items and read the cart back")
+    void addItem_shouldRoundTrip() {
+        assertThat(client.addItem("CART1", "PROD1", 2)).isEqualTo(new CartItem("PROD1", 2));
+        assertThat(client.addItem("CART1", "PROD1", 3)).isEqualTo(new CartItem("PROD1", 5));
+
+        assertThat(client.getCartItems("CART1")).containsExactly(new CartItem("PROD1", 5));
+        assertThat(cartService.getTotalQuantity("CART1")).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should answer pipelined requests in order")
+    void addItems_shouldPipelineRequests() {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            items.add(new CartItem("PROD" + (i % 100), 1));
+        }
+
+        List<CartItem> results = client.addItems("CART1", items);
+
+        assertThat(results).hasSize(10_000);
+        assertThat(results.get(9_999)).isEqualTo(new CartItem("PROD99", 100));
+        assertThat(client.getCartItems("CART1")).hasSize(100);
+        assertThat(client.getTotals("CART1")).isEqualTo(new BinaryCartClient.CartTotals(100, 10_000));
+    }
+
+    @Test
+    @DisplayName("Should update, remove and clear items")
+    void mutations_shouldReportNotFound() {
+        client.addItem("CART1", "PROD1", 2);
+
+        assertThat(client.updateQuantity("CART1", "PROD1", 7)).isPresent();
+        assertThat(client.updateQuantity("CART1", "MISSING", 7)).isEmpty();
+        assertThat(client.removeItem("CART1", "PROD1")).isTrue();
+        assertThat(client.removeItem("CART1", "PROD1")).isFalse();
+
+        client.addItem("CART1", "PROD2", 1);
+        client.clearCart("CART1");
+        assertThat(client.getCartItems("CART1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject invalid requests without closing the connection")
+    void addItem_shouldRejectInvalidQuantity() {
+        assertThrows(IllegalArgumentException.class, () -> client.addItem("CART1", "PROD1", 0));
+
+        assertThat(client.addItem("CART1", "PROD1", 1).quantity()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the connection usable when a pipelined item is rejected")
+    void addItems_shouldDrainBatchAfterRejectedItem() {
+        List<CartItem> items = List.of(
+            new CartItem("PROD1", 1), new CartItem("PROD2", 0), new CartItem("PROD3", 2));
+
+        assertThrows(IllegalArgumentException.class, () -> client.addItems("CART1", items));
+
+        assertThat(client.addItem("CART1", "PROD1", 1)).isEqualTo(new CartItem("PROD1", 2));
+        assertThat(client.getCartItems("CART1"))
+            .containsExactlyInAnyOrder(new CartItem("PROD1", 2), new CartItem("PROD3", 2));
+    }
+}
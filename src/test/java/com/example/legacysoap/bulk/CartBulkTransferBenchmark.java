@@ -0,0 +1,163 @@
+package com.example.legacysoap.bulk;
+
+import com.example.legacysoap.service.CartService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import and export throughput on a generated file.
+ * Lines are grouped by cart, as an export is, over a bounded key space
+ * (100,000 carts of 10 products) so the carts themselves fit in memory whatever the line count.
+ * CSV import is compared with reading lines one at a time and calling addItem per line.
+ * Peak heap is reported to show memory does not grow with the file; run with a small -Xmx to confirm.
+ * <p>
+ * Not a JUnit test. Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.legacysoap.bulk.CartBulkTransferBenchmark [-Dexec.args="lines [directory]"]}
+ */
+public class CartBulkTransferBenchmark {
+
+    private static final int CARTS = 100_000;
+    private static final int PRODUCTS_PER_CART = 10;
+
+    public static void main(String[] args) throws IOException {
+        long lines = args.length > 0 ? Long.parseLong(args[0]) : 100_000_000L;
+        Path directory = args.length > 1 ? Path.of(args[1]) : Path.of(System.getProperty("java.io.tmpdir"));
+
+        System.out.printf("%,d lines, %,d carts x %d products, max heap %,d MB%n",
+            lines, CARTS, PRODUCTS_PER_CART, Runtime.getRuntime().maxMemory() >> 20);
+        System.out.printf("%-28s %10s %10s %14s %10s %14s%n",
+            "step", "MB", "seconds", "lines/s", "MB/s", "peak heap MB");
+        for (BulkFormat format : BulkFormat.values()) {
+            Path input = Files.createTempFile(directory, "carts-in", "." + format.name().toLowerCase());
+            Path output = Files.createTempFile(directory, "carts-out", "." + format.name().toLowerCase());
+            try {
+                generate(input, format, lines);
+                transfer(format, input, output, lines);
+
+                if (format == BulkFormat.CSV) {
+                    CartService perLine = new CartService();
+                    measure("CSV readLine + addItem", input, lines, () -> {
+                        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                            String line;
+                            while ((line = reader.readLine()) != null) {
+                                String[] fields = line.split(",");
+                                perLine.addItem(fields[0], fields[1], Integer.parseInt(fields[2]));
+                            }
+                        }
+                    });
+                }
+            } finally {
+                Files.deleteIfExists(input);
+                Files.deleteIfExists(output);
+            }
+        }
+    }
+
+    /**
+     * Import the file into a new CartService, check the carts, and export them again
+     */
+    private static void transfer(BulkFormat format, Path input, Path output, long lines) throws IOException {
+        CartService cartService = new CartService();
+        measure(format + " import", input, lines, () -> {
+            try (FileChannel in = FileChannel.open(input)) {
+                ImportResult result = new CartBulkImporter(cartService).importFrom(in, format);
+                if (result.imported() != lines) {
+                    throw new IllegalStateException("Imported " + result.imported() + " of " + lines);
+                }
+            }
+        });
+        long carts = Math.min(CARTS, (lines + PRODUCTS_PER_CART - 1) / PRODUCTS_PER_CART);
+        if (cartService.getCartCount() != carts || totalQuantity(cartService) != lines / 2 * 3 + lines % 2) {
+            throw new IllegalStateException("Imported carts do not match the input");
+        }
+
+        long items = Math.min(lines, (long) CARTS * PRODUCTS_PER_CART);
+        measure(format + " export", output, items, () -> {
+            try (FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                new CartBulkExporter(cartService).exportTo(out, format);
+            }
+        });
+    }
+
+    /**
+     * Write the input file: line i adds 1 or 2 of product i % 10 to cart (i / 10) % 100,000
+     */
+    private static void generate(Path file, BulkFormat format, long lines) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (long i = 0; i < lines; i++) {
+                String cartId = "cart-" + pad((i / PRODUCTS_PER_CART) % CARTS, 6);
+                String productId = "PROD-" + pad(i % PRODUCTS_PER_CART, 4);
+                int quantity = (int) (i % 2) + 1;
+                String line = format == BulkFormat.NDJSON
+                    ? "{\"cartId\":\"" + cartId + "\",\"productId\":\"" + productId + "\",\"quantity\":" + quantity + "}\n"
+                    : cartId + "," + productId + "," + quantity + "\n";
+                byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+                if (buffer.remaining() < bytes.length) {
+                    write(out, buffer);
+                }
+                buffer.put(bytes);
+            }
+            write(out, buffer);
+        }
+    }
+
+    private static String pad(long value, int width) {
+        String digits = Long.toString(value);
+        return "0".repeat(Math.max(0, width - digits.length())) + digits;
+    }
+
+    private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long totalQuantity(CartService cartService) {
+        long[] total = {0};
+        cartService.forEachCart((cartId, items) -> items.forEach(item -> total[0] += item.quantity()));
+        return total[0];
+    }
+
+    private interface Step {
+        void run() throws IOException;
+    }
+
+    /**
+     * Time one step and report its rate over the given file, which it reads or writes
+     */
+    private static void measure(String name, Path file, long lines, Step step) throws IOException {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        long start = System.nanoTime();
+        step.run();
+        double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        double megabytes = Files.size(file) / (double) (1 << 20);
+        System.out.printf("%-28s %,10.0f %,10.1f %,14.0f %,10.0f %,14d%n",
+            name, megabytes, seconds, lines / seconds, megabytes / seconds, peakHeap >> 20);
+    }
+}
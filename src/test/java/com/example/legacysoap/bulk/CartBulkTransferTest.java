@@ -0,0 +1,129 @@
+package com.example.legacysoap.bulk;
+
+import com.example.legacysoap.dto.CartItem;
+import com.example.legacysoap.service.CartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for streaming bulk import and export
+ */
+@DisplayName("Cart Bulk Transfer Tests")
+class CartBulkTransferTest {
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartService();
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON lines in any key order, adding to existing quantities")
+    void importNdjson_shouldAddItems() throws IOException {
+        cartService.addItem("cart-1", "PROD-001", 1);
+
+        ImportResult result = importText(BulkFormat.NDJSON, """
+            {"cartId":"cart-1","productId":"PROD-001","quantity":2}
+            { "quantity" : 5, "note": {"tags": ["a", "}"]}, "productId": "PROD-\\u0032", "cartId": "cart-1" }
+
+            {"cartId":"cart-2","productId":"PROD-001","quantity":3}
+            """);
+
+        assertThat(result.lines()).isEqualTo(3);
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.rejected()).isZero();
+        assertThat(cartService.getCartItems("cart-1"))
+            .containsExactlyInAnyOrder(new CartItem("PROD-001", 3), new CartItem("PROD-2", 5));
+        assertThat(cartService.getCartItems("cart-2")).containsExactly(new CartItem("PROD-001", 3));
+    }
+
+    @Test
+    @DisplayName("Should import CSV with a header, quoted fields and CRLF line ends")
+    void importCsv_shouldAddItems() throws IOException {
+        ImportResult result = importText(BulkFormat.CSV,
+            "cartId,productId,quantity\r\ncart-1,PROD-001,2\r\n\"cart,1\",\"PROD \"\"A\"\"\",4\r\ncart-1,PROD-001,1");
+
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.rejected()).isZero();
+        assertThat(cartService.getCartItems("cart-1")).containsExactly(new CartItem("PROD-001", 3));
+        assertThat(cartService.getCartItems("cart,1")).containsExactly(new CartItem("PROD \"A\"", 4));
+    }
+
+    @Test
+    @DisplayName("Should skip and report invalid lines without failing the import")
+    void import_shouldRejectInvalidLines() throws IOException {
+        ImportResult result = importText(BulkFormat.NDJSON, """
+            {"cartId":"cart-1","productId":"PROD-001","quantity":0}
+            {"cartId":"cart-1","productId":"","quantity":1}
+            {"productId":"PROD-001","quantity":1}
+            {"cartId":"cart-1","productId":"PROD-001","quantity":1.5}
+            not json
+            {"cartId":"cart-1","productId":"PROD-001","quantity":7}
+            """);
+
+        assertThat(result.lines()).isEqualTo(6);
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.rejected()).isEqualTo(5);
+        assertThat(result.errors()).hasSize(5);
+        assertThat(result.errors().get(0)).startsWith("line 1:").contains("Quantity must be positive");
+        assertThat(cartService.getCartItems("cart-1")).containsExactly(new CartItem("PROD-001", 7));
+    }
+
+    @Test
+    @DisplayName("Should read lines across buffer refills and reject lines longer than the buffer")
+    void import_shouldHandleSmallBuffer() throws IOException {
+        CartBulkImporter importer = new CartBulkImporter(cartService, 2, 64);
+        String text = "cart-1,PROD-001,1\n"
+            + "cart-1," + "X".repeat(200) + ",1\n"
+            + "cart-1,PROD-002,2\n".repeat(10);
+
+        ImportResult result = importer.importFrom(
+            Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), BulkFormat.CSV);
+
+        assertThat(result.imported()).isEqualTo(11);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(result.errors()).containsExactly("line 2: line exceeds 64 bytes");
+        assertThat(cartService.getCartItems("cart-1"))
+            .containsExactlyInAnyOrder(new CartItem("PROD-001", 1), new CartItem("PROD-002", 20));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BulkFormat.class)
+    @DisplayName("Should export carts in a form that imports back to the same state")
+    void export_shouldRoundTrip(BulkFormat format) throws IOException {
+        cartService.addItem("cart-1", "PROD-001", 2);
+        cartService.addItem("cart-1", "PROD, \"quoted\"\t", 3);
+        cartService.addItem("cárt-2", "PROD-\\001", 4);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = new CartBulkExporter(cartService, 16).exportTo(Channels.newChannel(out), format);
+
+        CartService target = new CartService();
+        ImportResult result = new CartBulkImporter(target).importFrom(
+            Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), format);
+
+        assertThat(written).isEqualTo(3);
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.rejected()).isZero();
+        assertThat(target.getCartItems("cart-1"))
+            .containsExactlyInAnyOrderElementsOf(cartService.getCartItems("cart-1"));
+        assertThat(target.getCartItems("cárt-2")).containsExactly(new CartItem("PROD-\\001", 4));
+    }
+
+    private ImportResult importText(BulkFormat format, String text) throws IOException {
+        return new CartBulkImporter(cartService).importFrom(
+            Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), format);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.legacysoap.cache;
+
+import com.example.legacysoap.service.CartService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Servlet-level tests for CartResponseCacheFilter, with a stand-in for the REST and SOAP endpoints
+ */
+@DisplayName("CartResponseCacheFilter Tests")
+class CartResponseCacheFilterTest {
+
+    private static final String ENVELOPE = """
+        <soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/"
+                          xmlns:sc="http://example.com/shoppingcart">
+          <soapenv:Header/>
+          <soapenv:Body>%s</soapenv:Body>
+        </soapenv:Envelope>""";
+
+    private CartService cartService;
+    private CartResponseCache cache;
+    private CartResponseCacheFilter filter;
+    private final List<String> served = new ArrayList<>();
+    private int status = HttpServletResponse.SC_OK;
+
+    /**
+     * Answers like the cart endpoints, recording each request that reaches it
+     */
+    private final HttpServlet endpoint = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            served.add(request.getMethod() + " " + body);
+            response.setStatus(status);
+            if (request.getMethod().equals("GET")) {
+                response.setContentType("application/json");
+                response.getWriter().write("{\"items\":\"" + cartService.getCartItems() + "\"}");
+            } else {
+                response.setContentType("text/xml;charset=utf-8");
+                response.getWriter().write("<GetCartResponse>" + cartService.getCartItems() + "</GetCartResponse>");
+            }
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartService();
+        cache = new CartResponseCache(1 << 20, true, 0);
+        filter = new CartResponseCacheFilter(cartService, cache);
+    }
+
+    private MockHttpServletResponse get(String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/cart");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return run(request);
+    }
+
+    private MockHttpServletResponse soap(String payload) throws Exception {
+        return soap(ENVELOPE, payload);
+    }
+
+    private MockHttpServletResponse soap(String envelope, String payload) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/ws");
+        request.setContentType("text/xml;charset=utf-8");
+        request.setContent(envelope.formatted(payload).getBytes(StandardCharsets.UTF_8));
+        return run(request);
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(endpoint));
+        return response;
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve a repeated read from the cache with the original headers")
+    void get_shouldServeHitWithHeaders() throws Exception {
+        cartService.addItem("PROD1", 2);
+
+        MockHttpServletResponse miss = get(null);
+        MockHttpServletResponse hit = get(null);
+
+        assertThat(served).hasSize(1);
+        assertThat(hit.getStatus()).isEqualTo(200);
+        assertThat(hit.getContentAsString()).isEqualTo(miss.getContentAsString()).contains("PROD1");
+        assertThat(hit.getContentType()).isEqualTo(miss.getContentType()).startsWith("application/json");
+        assertThat(hit.getContentLength()).isEqualTo(miss.getContentAsByteArray().length);
+        assertThat(hit.getHeader("Content-Encoding")).isNull();
+        assertThat(hit.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(cache.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve gzip-encoded hits only to clients that accept gzip")
+    void get_shouldServeGzipHit() throws Exception {
+        cartService.addItem("PROD1", 2);
+
+        MockHttpServletResponse miss = get("gzip, deflate");
+        MockHttpServletResponse hit = get("gzip, deflate");
+        MockHttpServletResponse refused = get("gzip;q=0");
+
+        assertThat(hit.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(gunzip(hit.getContentAsByteArray())).isEqualTo(miss.getContentAsString());
+        assertThat(refused.getHeader("Content-Encoding")).isNull();
+        assertThat(refused.getContentAsString()).isEqualTo(miss.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should miss after a mutation and then cache the new contents")
+    void get_shouldMissAfterMutation() throws Exception {
+        cartService.addItem("PROD1", 2);
+        get(null);
+        get(null);
+
+        cartService.addItem("PROD1", 3);
+        MockHttpServletResponse changed = get(null);
+        MockHttpServletResponse cached = get(null);
+
+        assertThat(served).hasSize(2);
+        assertThat(changed.getContentAsString()).contains("quantity=5");
+        assertThat(cached.getContentAsString()).isEqualTo(changed.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should not store responses for a cart that did not exist when the request started")
+    void get_shouldNotStoreMissingCart() throws Exception {
+        get(null);
+        get(null);
+
+        assertThat(served).hasSize(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not store error responses")
+    void get_shouldNotStoreErrors() throws Exception {
+        cartService.addItem("PROD1", 2);
+        status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+
+        get(null);
+        get(null);
+
+        assertThat(served).hasSize(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should cache an empty SOAP GetCartRequest")
+    void soap_shouldCacheGetCart() throws Exception {
+        cartService.addItem("PROD1", 2);
+
+        MockHttpServletResponse miss = soap("<sc:GetCartRequest/>");
+        MockHttpServletResponse hit = soap("<sc:GetCartRequest>\n</sc:GetCartRequest>");
+
+        assertThat(served).hasSize(1);
+        assertThat(served.get(0)).contains("GetCartRequest");
+        assertThat(hit.getContentAsString()).isEqualTo(miss.getContentAsString());
+        assertThat(hit.getContentType()).isEqualTo(miss.getContentType()).startsWith("text/xml");
+    }
+
+    @Test
+    @DisplayName("Should pass other SOAP requests through with their body intact")
+    void soap_shouldPassThroughOtherOperations() throws Exception {
+        cartService.addItem("PROD1", 2);
+        String addItem = "<sc:AddItemRequest><sc:productId>PROD1</sc:productId><sc:quantity>1</sc:quantity></sc:AddItemRequest>";
+
+        soap(addItem);
+        soap(addItem);
+
+        assertThat(served).hasSize(2);
+        assertThat(served.get(1)).isEqualTo("POST " + ENVELOPE.formatted(addItem));
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should leave GetCartRequests that schema validation or header processing could reject to Spring-WS")
+    void soap_shouldNotCacheNonEmptyGetCart() throws Exception {
+        cartService.addItem("PROD1", 2);
+        String withHeader = ENVELOPE.replace("<soapenv:Header/>",
+            "<soapenv:Header><sc:Trace soapenv:mustUnderstand=\"1\"/></soapenv:Header>");
+
+        for (int i = 0; i < 2; i++) {
+            soap("<sc:GetCartRequest><sc:productId>PROD1</sc:productId></sc:GetCartRequest>");
+            soap("<sc:GetCartRequest>text</sc:GetCartRequest>");
+            soap("<sc:GetCartRequest sc:unexpected=\"1\"/>");
+            soap("<sc:GetCartRequest/><sc:GetCartRequest/>");
+            soap("<GetCartRequest/>");
+            soap(withHeader, "<sc:GetCartRequest/>");
+        }
+
+        assertThat(served).hasSize(12);
+        assertThat(cache.size()).isZero();
+    }
+}
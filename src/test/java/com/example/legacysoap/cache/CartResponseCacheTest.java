@@ -0,0 +1,145 @@
+package com.example.legacysoap.cache;
+
+import com.example.legacysoap.cache.CartResponseCache.CachedResponse;
+import com.example.legacysoap.cache.CartResponseCache.Encoding;
+import com.example.legacysoap.cache.CartResponseCache.Representation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for CartResponseCache version matching, byte-budget eviction and gzip encoding
+ */
+@DisplayName("CartResponseCache Tests")
+class CartResponseCacheTest {
+
+    private static final String JSON = "application/json";
+
+    @Test
+    @DisplayName("Should serve a response only for the version it was stored under")
+    void get_shouldMatchVersion() {
+        CartResponseCache cache = new CartResponseCache(1 << 20, false, 0);
+        byte[] body = "{\"items\":[]}".getBytes(StandardCharsets.UTF_8);
+        cache.put("cart-1", 7, Representation.JSON, Encoding.IDENTITY, JSON, body);
+
+        CachedResponse hit = cache.get("cart-1", 7, Representation.JSON, Encoding.IDENTITY);
+        assertThat(hit).isNotNull();
+        assertThat(hit.body()).isEqualTo(body);
+        assertThat(hit.contentType()).isEqualTo(JSON);
+        assertThat(cache.get("cart-1", 8, Representation.JSON, Encoding.IDENTITY)).isNull();
+        assertThat(cache.get("cart-1", 7, Representation.SOAP, Encoding.IDENTITY)).isNull();
+        assertThat(cache.get("cart-2", 7, Representation.JSON, Encoding.IDENTITY)).isNull();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should replace the response of an older version and keep it charged until swept")
+    void put_shouldReplacePreviousVersion() {
+        CartResponseCache cache = new CartResponseCache(1 << 20, false, 0);
+        cache.put("cart-1", 1, Representation.JSON, Encoding.IDENTITY, JSON, new byte[100]);
+        cache.put("cart-1", 2, Representation.JSON, Encoding.IDENTITY, JSON, new byte[40]);
+
+        assertThat(cache.get("cart-1", 1, Representation.JSON, Encoding.IDENTITY)).isNull();
+        assertThat(cache.get("cart-1", 2, Representation.JSON, Encoding.IDENTITY)).isNotNull();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.weightedSize()).isEqualTo(140 + 2L * CartResponseCache.ENTRY_OVERHEAD);
+    }
+
+    @Test
+    @DisplayName("Should keep replaced responses within the budget without evicting live ones")
+    void put_shouldBoundReplacedResponses() {
+        int entryWeight = 1000 + CartResponseCache.ENTRY_OVERHEAD;
+        long maxBytes = 10L * entryWeight;
+        CartResponseCache cache = new CartResponseCache(maxBytes, false, 0);
+        for (int i = 1; i <= 5; i++) {
+            cache.put("cart-" + i, 1, Representation.JSON, Encoding.IDENTITY, JSON, new byte[1000]);
+        }
+
+        for (int version = 1; version <= 1000; version++) {
+            cache.put("cart-0", version, Representation.JSON, Encoding.IDENTITY, JSON, new byte[1000]);
+            assertThat(cache.weightedSize()).isLessThanOrEqualTo(maxBytes);
+        }
+
+        assertThat(cache.size()).isEqualTo(6);
+        assertThat(cache.get("cart-0", 1000, Representation.JSON, Encoding.IDENTITY)).isNotNull();
+        for (int i = 1; i <= 5; i++) {
+            assertThat(cache.get("cart-" + i, 1, Representation.JSON, Encoding.IDENTITY)).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict by byte budget, keeping responses read since the last sweep")
+    void put_shouldEvictWithinByteBudget() {
+        int entryWeight = 1000 + CartResponseCache.ENTRY_OVERHEAD;
+        CartResponseCache cache = new CartResponseCache(10L * entryWeight, false, 0);
+        for (int i = 0; i < 10; i++) {
+            cache.put("cart-" + i, 1, Representation.JSON, Encoding.IDENTITY, JSON, new byte[1000]);
+        }
+        assertThat(cache.size()).isEqualTo(10);
+        assertThat(cache.get("cart-0", 1, Representation.JSON, Encoding.IDENTITY)).isNotNull();
+
+        for (int i = 10; i < 15; i++) {
+            cache.put("cart-" + i, 1, Representation.JSON, Encoding.IDENTITY, JSON, new byte[1000]);
+        }
+
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(10L * entryWeight);
+        assertThat(cache.size()).isEqualTo(10);
+        assertThat(cache.get("cart-0", 1, Representation.JSON, Encoding.IDENTITY)).isNotNull();
+        assertThat(cache.get("cart-14", 1, Representation.JSON, Encoding.IDENTITY)).isNotNull();
+        assertThat(cache.get("cart-1", 1, Representation.JSON, Encoding.IDENTITY)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not store a response larger than the whole budget")
+    void put_shouldSkipOversizedResponse() {
+        CartResponseCache cache = new CartResponseCache(1000, false, 0);
+        cache.put("cart-1", 1, Representation.JSON, Encoding.IDENTITY, JSON, new byte[1000]);
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.weightedSize()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should gzip responses for gzip clients above the minimum size only")
+    void put_shouldGzipForGzipEncoding() throws IOException {
+        CartResponseCache cache = new CartResponseCache(1 << 20, true, 64);
+        byte[] body = "{\"productId\":\"PROD-1\",\"quantity\":1},".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        CachedResponse gzipped = cache.put("cart-1", 1, Representation.JSON, Encoding.GZIP, JSON, body);
+        CachedResponse identity = cache.put("cart-1", 1, Representation.JSON, Encoding.IDENTITY, JSON, body);
+        CachedResponse small = cache.put("cart-2", 1, Representation.JSON, Encoding.GZIP, JSON, new byte[10]);
+
+        assertThat(gzipped.gzipped()).isTrue();
+        assertThat(gzipped.body().length).isLessThan(body.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+            assertThat(in.readAllBytes()).isEqualTo(body);
+        }
+        assertThat(identity.gzipped()).isFalse();
+        assertThat(identity.body()).isEqualTo(body);
+        assertThat(small.gzipped()).isFalse();
+        assertThat(cache.get("cart-1", 1, Representation.JSON, Encoding.GZIP)).isSameAs(gzipped);
+    }
+
+    @Test
+    @DisplayName("Should drop every response of an invalidated cart")
+    void invalidate_shouldDropAllRepresentations() {
+        CartResponseCache cache = new CartResponseCache(1 << 20, true, 0);
+        cache.put("cart-1", 1, Representation.JSON, Encoding.IDENTITY, JSON, new byte[10]);
+        cache.put("cart-1", 1, Representation.SOAP, Encoding.GZIP, "text/xml", new byte[10]);
+        cache.put("cart-2", 1, Representation.JSON, Encoding.IDENTITY, JSON, new byte[10]);
+
+        cache.invalidate("cart-1");
+
+        assertThat(cache.get("cart-1", 1, Representation.JSON, Encoding.IDENTITY)).isNull();
+        assertThat(cache.get("cart-1", 1, Representation.SOAP, Encoding.GZIP)).isNull();
+        assertThat(cache.get("cart-2", 1, Representation.JSON, Encoding.IDENTITY)).isNotNull();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}
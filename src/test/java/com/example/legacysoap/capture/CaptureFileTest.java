@@ -0,0 +1,94 @@
+package com.example.legacysoap.capture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the capture file format
+ */
+@DisplayName("CaptureFile Tests")
+class CaptureFileTest {
+
+    private static final String ENVELOPE = """
+        <soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/"
+                          xmlns:sc="http://example.com/shoppingcart">
+          <soapenv:Body>
+            <sc:AddItemRequest><sc:productId>PROD-1</sc:productId><sc:quantity>2</sc:quantity></sc:AddItemRequest>
+          </soapenv:Body>
+        </soapenv:Envelope>""";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should read back captured requests exactly, including null fields")
+    void requests_shouldRoundTrip() throws IOException {
+        CapturedRequest soap = new CapturedRequest(0, 850, 200, "POST", "/ws", null,
+            "text/xml; charset=utf-8", "\"\"", ENVELOPE.getBytes(StandardCharsets.UTF_8));
+        CapturedRequest rest = new CapturedRequest(1_500_000_000L, 1200, 201, "POST", "/api/v1/cart/items",
+            "dryRun=true", "application/json", null, "{\"productId\":\"PRÖD\",\"quantity\":1}".getBytes(StandardCharsets.UTF_8));
+        Path file = directory.resolve("traffic.cap");
+
+        try (CaptureFile.Writer writer = CaptureFile.newWriter(file, CaptureFile.Kind.TRAFFIC)) {
+            writer.write(soap);
+            writer.write(rest);
+        }
+
+        try (CaptureFile.Reader reader = CaptureFile.newReader(file, CaptureFile.Kind.TRAFFIC)) {
+            assertSameRequest(reader.readRequest(), soap);
+            assertSameRequest(reader.readRequest(), rest);
+            assertThat(reader.readRequest()).isNull();
+        }
+        assertThat(soap.operation()).isEqualTo("SOAP AddItemRequest");
+        assertThat(rest.operation()).isEqualTo("POST /api/v1/cart/items");
+    }
+
+    @Test
+    @DisplayName("Should read a capture cut off by a crash up to its last flush")
+    void reader_shouldStopAtTruncation() throws IOException {
+        Path file = directory.resolve("traffic.cap");
+        CapturedRequest request = new CapturedRequest(10, 20, 200, "GET", "/api/v1/cart", null, null, null,
+            new byte[0]);
+        CaptureFile.Writer writer = CaptureFile.newWriter(file, CaptureFile.Kind.TRAFFIC);
+        writer.write(request);
+        writer.flush();
+        // No gzip trailer, as if the process had been killed here
+        Path crashed = Files.copy(file, directory.resolve("crashed.cap"));
+        writer.close();
+
+        try (CaptureFile.Reader reader = CaptureFile.newReader(crashed, CaptureFile.Kind.TRAFFIC)) {
+            assertSameRequest(reader.readRequest(), request);
+            assertThat(reader.readRequest()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to read replay results as traffic")
+    void reader_shouldCheckKind() throws IOException {
+        Path file = directory.resolve("results.cap");
+        try (CaptureFile.Writer writer = CaptureFile.newWriter(file, CaptureFile.Kind.RESULTS)) {
+            writer.write(new ReplayResult(0, "SOAP GetCartRequest", 200, 900, 0, 0xCAFEBABEL));
+        }
+
+        assertThatThrownBy(() -> CaptureFile.newReader(file, CaptureFile.Kind.TRAFFIC))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("expected TRAFFIC");
+        try (CaptureFile.Reader reader = CaptureFile.newReader(file, CaptureFile.Kind.RESULTS)) {
+            assertThat(reader.readResult())
+                .isEqualTo(new ReplayResult(0, "SOAP GetCartRequest", 200, 900, 0, 0xCAFEBABEL));
+        }
+    }
+
+    private static void assertSameRequest(CapturedRequest actual, CapturedRequest expected) {
+        assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
+    }
+}
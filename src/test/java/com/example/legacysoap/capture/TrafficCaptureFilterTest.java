@@ -0,0 +1,75 @@
+package com.example.legacysoap.capture;
+
+import com.example.legacysoap.config.CaptureProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for which requests TrafficCaptureFilter records, skips or ignores
+ */
+@DisplayName("TrafficCaptureFilter Tests")
+class TrafficCaptureFilterTest {
+
+    @TempDir
+    Path directory;
+
+    private TrafficRecorder recorder;
+    private TrafficCaptureFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recorder = new TrafficRecorder(new CaptureProperties(true, directory.resolve("traffic.cap"), 16, 100));
+        recorder.start();
+        filter = new TrafficCaptureFilter(recorder);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        recorder.stop();
+    }
+
+    private MockFilterChain run(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    @Test
+    @DisplayName("Should pass chunked and oversized requests through and count them as skipped")
+    void doFilter_shouldCountUnrecordableRequests() throws Exception {
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/ws");
+        chunked.addHeader("Transfer-Encoding", "chunked");
+        MockHttpServletRequest oversized = new MockHttpServletRequest("POST", "/ws");
+        oversized.setContent(new byte[17]);
+
+        assertThat(run(chunked).getRequest()).isSameAs(chunked);
+        assertThat(run(oversized).getRequest()).isSameAs(oversized);
+
+        assertThat(recorder.skippedCount()).isEqualTo(2);
+        assertThat(recorder.droppedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should record small requests and ignore bulk transfers without counting them")
+    void doFilter_shouldRecordSmallRequests() throws Exception {
+        MockHttpServletRequest small = new MockHttpServletRequest("POST", "/ws");
+        small.setContent(new byte[16]);
+        MockHttpServletRequest bulk = new MockHttpServletRequest("POST", "/api/v1/cart/bulk/import");
+        bulk.setContent(new byte[1024]);
+
+        assertThat(run(small).getRequest()).isNotSameAs(small);
+        assertThat(run(bulk).getRequest()).isSameAs(bulk);
+
+        assertThat(recorder.skippedCount()).isZero();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.legacysoap.capture;
+
+import com.example.legacysoap.cache.CartResponseCache;
+import com.example.legacysoap.service.CartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Traffic capture and the response cache enabled together: cache hits must still be captured
+ */
+@SpringBootTest(properties = {"cart.capture.enabled=true", "cart.response-cache.enabled=true"})
+@AutoConfigureMockMvc
+@DisplayName("Traffic capture with response cache Tests")
+class TrafficCaptureWithResponseCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartResponseCache cache;
+
+    @MockBean
+    private TrafficRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        when(recorder.maxBodyBytes()).thenReturn(65536);
+        cartService.clearCart();
+    }
+
+    @Test
+    @DisplayName("Should capture reads answered from the response cache")
+    void cacheHit_shouldBeCaptured() throws Exception {
+        cartService.addItem("PROD1", 2);
+        long hits = cache.hitCount();
+
+        mockMvc.perform(get("/api/v1/cart")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/cart")).andExpect(status().isOk());
+
+        assertThat(cache.hitCount()).isEqualTo(hits + 1);
+        verify(recorder, times(2)).record(argThat(request ->
+            request.path().equals("/api/v1/cart") && request.status() == 200));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.legacysoap.capture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for comparing two replays of a capture
+ */
+@DisplayName("TrafficReplay Tests")
+class TrafficReplayTest {
+
+    @TempDir
+    Path directory;
+
+    private static CapturedRequest request(long offsetMicros) {
+        return new CapturedRequest(offsetMicros, 100, 200, "GET", "/api/v1/cart", null, null, null, new byte[0]);
+    }
+
+    private static ReplayResult result(long index, int status, long checksum) {
+        return new ReplayResult(index, "REST GET /api/v1/cart", status, 500, 0, checksum);
+    }
+
+    @Test
+    @DisplayName("Should pair results by request index when one replay is missing a result")
+    void compareResults_shouldMatchByIndex() {
+        ReplayResult[] a = {result(0, 200, 1), result(1, 200, 2), result(2, 200, 3), result(3, 200, 4)};
+        ReplayResult[] b = {result(0, 200, 1), result(2, 200, 3), result(3, 500, 4)};
+
+        TrafficReplay.Comparison comparison = TrafficReplay.compareResults(a, b);
+
+        assertThat(comparison).isEqualTo(new TrafficReplay.Comparison(3, 1, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Should replay requests in start order when slow ones were captured after later ones")
+    void startOrder_shouldReorderByOffset() throws IOException {
+        Path file = directory.resolve("traffic.cap");
+        try (CaptureFile.Writer writer = CaptureFile.newWriter(file, CaptureFile.Kind.TRAFFIC)) {
+            for (long offset : new long[] {200, 300, 0, 100, 500, 400, 700, 600}) {
+                writer.write(request(offset));
+            }
+        }
+
+        List<Long> offsets = new ArrayList<>();
+        try (CaptureFile.Reader reader = CaptureFile.newReader(file, CaptureFile.Kind.TRAFFIC)) {
+            TrafficReplay.StartOrder requests = new TrafficReplay.StartOrder(reader, 3);
+            for (CapturedRequest request; (request = requests.next()) != null; ) {
+                offsets.add(request.offsetMicros());
+            }
+        }
+
+        assertThat(offsets).containsExactly(0L, 100L, 200L, 300L, 400L, 500L, 600L, 700L);
+    }
+}
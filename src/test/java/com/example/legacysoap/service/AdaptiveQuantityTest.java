@@ -0,0 +1,154 @@
+package com.example.legacysoap.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for the contention-adaptive item quantity
+ */
+@DisplayName("AdaptiveQuantity Tests")
+class AdaptiveQuantityTest {
+
+    @Test
+    @DisplayName("Should keep an exact total across the switch to striped cells")
+    void sum_shouldBeExactWhenStriped() throws InterruptedException {
+        AdaptiveQuantity quantity = new AdaptiveQuantity(5);
+        quantity.add(5);
+        quantity.inflate();
+        assertThat(quantity.isStriped()).isTrue();
+        assertThat(quantity.sum()).isEqualTo(10);
+
+        int numberOfThreads = 16;
+        int additionsPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        CountDownLatch latch = new CountDownLatch(numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < additionsPerThread; j++) {
+                    quantity.add(1);
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        executor.shutdown();
+
+        assertThat(quantity.sum()).isEqualTo(10 + numberOfThreads * additionsPerThread);
+    }
+
+    @Test
+    @DisplayName("Should report adds to a retired quantity so they can be re-applied")
+    void add_shouldFailAfterRetire() {
+        AdaptiveQuantity quantity = new AdaptiveQuantity(1);
+        assertThat(quantity.add(1)).isTrue();
+
+        assertThat(quantity.retire()).isEqualTo(2);
+
+        assertThat(quantity.add(1)).isFalse();
+        assertThat(quantity.sum()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should switch to striped cells when adds contend")
+    void add_shouldInflateUnderContention() throws Exception {
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 2, "Contention needs parallel threads");
+        AdaptiveQuantity quantity = new AdaptiveQuantity(0);
+        int numberOfThreads = Runtime.getRuntime().availableProcessors();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        List<Future<Integer>> adds = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            adds.add(executor.submit(() -> {
+                int count = 0;
+                while (!quantity.isStriped() && System.nanoTime() < deadline) {
+                    quantity.add(1);
+                    count++;
+                }
+                return count;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> add : adds) {
+            total += add.get();
+        }
+        executor.shutdown();
+
+        assertThat(quantity.isStriped()).isTrue();
+        assertThat(quantity.sum()).isEqualTo(total);
+    }
+
+    @Test
+    @DisplayName("Should switch back to a single counter once adds slow down")
+    void add_shouldDeflateWhenContentionSubsides() throws InterruptedException {
+        AdaptiveQuantity quantity = new AdaptiveQuantity(0);
+        quantity.inflate();
+        Thread.sleep(5);
+
+        // 16 adds in 5 ms is far below the deflate rate; the check runs on the 16th add to a cell
+        for (int i = 0; i < 16; i++) {
+            quantity.add(1);
+        }
+
+        assertThat(quantity.isStriped()).isFalse();
+        assertThat(quantity.sum()).isEqualTo(16);
+        quantity.add(1);
+        assertThat(quantity.sum()).isEqualTo(17);
+    }
+
+    @Test
+    @DisplayName("Should switch back on read when adds have stopped")
+    void sum_shouldDeflateWhenIdle() throws InterruptedException {
+        AdaptiveQuantity quantity = new AdaptiveQuantity(3);
+        quantity.inflate();
+        quantity.add(2);
+        Thread.sleep(5);
+
+        assertThat(quantity.sum()).isEqualTo(5);
+        assertThat(quantity.isStriped()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should count exactly the adds that succeed before a concurrent retire")
+    void retire_shouldMatchSuccessfulAdds() throws Exception {
+        AdaptiveQuantity quantity = new AdaptiveQuantity(0);
+        quantity.inflate();
+        int numberOfThreads = 8;
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        List<Future<Integer>> adds = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            adds.add(executor.submit(() -> {
+                int succeeded = 0;
+                while (!stop.get()) {
+                    if (quantity.add(1)) {
+                        succeeded++;
+                    }
+                }
+                return succeeded;
+            }));
+        }
+        Thread.sleep(20);
+        int retired = quantity.retire();
+        stop.set(true);
+        int succeeded = 0;
+        for (Future<Integer> add : adds) {
+            succeeded += add.get();
+        }
+        executor.shutdown();
+
+        assertThat(retired).isEqualTo(succeeded);
+        assertThat(quantity.sum()).isEqualTo(retired);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.legacysoap.service;
+
+import com.example.legacysoap.dto.CartItem;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single-hot-key contention benchmark: addItem_shouldBeThreadSafe from CartServiceIntegrationTest at scale.
+ * Every thread adds 1 to the same product; CartService is compared with the previous
+ * {@code ConcurrentHashMap.merge} implementation and both totals are checked for exactness.
+ * <p>
+ * Not a JUnit test. Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.legacysoap.service.CartServiceContentionBenchmark [-Dexec.args="adds-per-thread"]}
+ */
+public class CartServiceContentionBenchmark {
+
+    private static final String HOT_PRODUCT = "CONCURRENT_PROD";
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        int addsPerThread = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%d cores, %,d adds per thread, best of %d rounds%n", cores, addsPerThread, ROUNDS);
+        System.out.printf("%8s %18s %18s %8s%n", "threads", "merge ops/s", "CartService ops/s", "speedup");
+        for (int threads : new TreeSet<>(List.of(1, 2, cores, cores * 4, cores * 16))) {
+            double merge = best(threads, addsPerThread, MergeCart::new);
+            double adaptive = best(threads, addsPerThread, ServiceCart::new);
+            System.out.printf("%8d %,18.0f %,18.0f %7.2fx%n", threads, merge, adaptive, adaptive / merge);
+        }
+    }
+
+    private static double best(int threads, int addsPerThread, Supplier<HotCart> factory)
+            throws InterruptedException {
+        double best = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            HotCart cart = factory.get();
+            double opsPerSecond = run(threads, addsPerThread, cart);
+            int expected = threads * addsPerThread;
+            if (cart.total() != expected) {
+                throw new IllegalStateException("Lost updates: expected " + expected + " but was " + cart.total());
+            }
+            best = Math.max(best, opsPerSecond);
+        }
+        return best;
+    }
+
+    private static double run(int threads, int addsPerThread, HotCart cart) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < addsPerThread; j++) {
+                    cart.add();
+                }
+                done.countDown();
+            });
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return (double) threads * addsPerThread * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    private interface HotCart {
+        void add();
+
+        int total();
+    }
+
+    /**
+     * The pre-striping CartService.addItem: every add locks the product's map bin
+     */
+    private static final class MergeCart implements HotCart {
+        private final ConcurrentHashMap<String, Integer> cart = new ConcurrentHashMap<>();
+
+        @Override
+        public void add() {
+            addItem(HOT_PRODUCT, 1);
+        }
+
+        private CartItem addItem(String productId, int quantity) {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            if (productId == null || productId.trim().isEmpty()) {
+                throw new IllegalArgumentException("Product ID cannot be null or empty");
+            }
+            return new CartItem(productId, cart.merge(productId, quantity, Integer::sum));
+        }
+
+        @Override
+        public int total() {
+            return cart.values().stream().mapToInt(Integer::intValue).sum();
+        }
+    }
+
+    private static final class ServiceCart implements HotCart {
+        private final CartService cartService = new CartService();
+
+        @Override
+        public void add() {
+            cartService.addItem(HOT_PRODUCT, 1);
+        }
+
+        @Override
+        public int total() {
+            return cartService.getTotalQuantity();
+        }
+    }
+}
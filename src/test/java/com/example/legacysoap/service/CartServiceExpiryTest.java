@@ -0,0 +1,116 @@
+package com.example.legacysoap.service;
+
+import com.example.legacysoap.config.CartExpiryProperties;
+import com.example.legacysoap.dto.CartItem;
+import com.example.legacysoap.service.expiry.CartEvictionListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for CartService idle and lifetime expiry, driven by a manual clock
+ */
+@DisplayName("CartService Expiry Tests")
+class CartServiceExpiryTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> evictions = new ArrayList<>();
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        CartExpiryProperties properties = new CartExpiryProperties(
+            true, Duration.ofSeconds(10), Duration.ofSeconds(60), Duration.ofSeconds(1));
+        CartEvictionListener listener = (cartId, items, cause) -> evictions.add(cartId + ":" + cause);
+        cartService = new CartService(properties, List.of(listener), clock::get);
+    }
+
+    private void advanceSeconds(int seconds) {
+        for (int i = 0; i < seconds; i++) {
+            clock.addAndGet(SECOND);
+            cartService.expireCarts();
+        }
+    }
+
+    @Test
+    @DisplayName("Should expire a cart after the idle timeout")
+    void expireCarts_shouldEvictIdleCart() {
+        cartService.addItem("CART1", "PROD1", 2);
+
+        advanceSeconds(9);
+        assertThat(cartService.getCartCount()).isEqualTo(1);
+
+        advanceSeconds(1);
+        assertThat(cartService.getCartCount()).isZero();
+        assertThat(evictions).containsExactly("CART1:IDLE");
+    }
+
+    @Test
+    @DisplayName("Should keep a cart alive while it is accessed")
+    void expireCarts_shouldKeepTouchedCart() {
+        cartService.addItem("CART1", "PROD1", 2);
+
+        for (int i = 0; i < 5; i++) {
+            advanceSeconds(5);
+            assertThat(cartService.getCartItems("CART1")).containsExactly(new CartItem("PROD1", 2));
+        }
+        assertThat(evictions).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should expire a busy cart at its maximum lifetime")
+    void expireCarts_shouldEvictAtMaxLifetime() {
+        cartService.addItem("CART1", "PROD1", 1);
+
+        for (int i = 0; i < 12; i++) {
+            advanceSeconds(5);
+            cartService.getTotalQuantity("CART1");
+        }
+
+        assertThat(evictions).containsExactly("CART1:LIFETIME");
+        assertThat(cartService.getCartItems("CART1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not notify listeners when a cart is cleared")
+    void clearCart_shouldNotNotifyListeners() {
+        cartService.addItem("CART1", "PROD1", 1);
+        cartService.clearCart("CART1");
+
+        advanceSeconds(20);
+        assertThat(evictions).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should notify listeners on the expiry thread when an access finds a cart expired")
+    void liveCart_shouldNotifyOnExpiryThread() throws Exception {
+        CompletableFuture<String> notified = new CompletableFuture<>();
+        CartExpiryProperties properties = new CartExpiryProperties(
+            true, Duration.ofSeconds(10), Duration.ofSeconds(60), Duration.ofHours(1));
+        CartService service = new CartService(properties,
+            List.of((cartId, items, cause) -> notified.complete(Thread.currentThread().getName() + ":" + items)),
+            clock::get);
+        service.start();
+        try {
+            service.addItem("CART1", "PROD1", 2);
+            clock.addAndGet(11 * SECOND);
+
+            assertThat(service.getCartItems("CART1")).isEmpty();
+            assertThat(notified.get(5, TimeUnit.SECONDS))
+                .isEqualTo("cart-expiry:" + List.of(new CartItem("PROD1", 2)));
+        } finally {
+            service.stop();
+        }
+    }
+}
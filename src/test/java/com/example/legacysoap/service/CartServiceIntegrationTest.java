@@ -1,5 +1,6 @@
 package com.example.legacysoap.service;
 
+import com.example.legacysoap.dto.CartEntry;
 import com.example.legacysoap.dto.CartItem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -70,6 +71,67 @@ class CartServiceIntegrationTest {
         );
     }
 
+    @Test
+    @DisplayName("Should reject a batch with a missing cart ID before applying any entry")
+    void addItems_shouldValidateCartId() {
+        List<CartEntry> entries = List.of(
+            new CartEntry(CartService.DEFAULT_CART_ID, "PROD1", 1),
+            new CartEntry(null, "PROD2", 1));
+
+        assertThrows(IllegalArgumentException.class, () -> cartService.addItems(entries));
+        assertThat(cartService.getCartItems()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should change the cart version after a mutation and only then")
+    void getCartVersion_shouldChangeOnlyAfterMutation() {
+        assertThat(cartService.getCartVersion()).isZero();
+        cartService.addItem("PROD1", 2);
+        long version = cartService.getCartVersion();
+        assertThat(version).isPositive();
+        assertThat(cartService.getCartVersion()).isEqualTo(version);
+
+        cartService.updateQuantity("PROD1", 4);
+        long updated = cartService.getCartVersion();
+        assertThat(updated).isNotEqualTo(version);
+        assertThat(cartService.updateQuantity("MISSING", 1)).isEmpty();
+        assertThat(cartService.getCartVersion()).isEqualTo(updated);
+
+        cartService.removeItem("PROD1");
+        assertThat(cartService.getCartVersion()).isNotEqualTo(updated);
+    }
+
+    @Test
+    @DisplayName("Should neither lose nor double-count adds racing quantity updates")
+    void updateQuantity_shouldReapplyRacingAdds() throws Exception {
+        int numberOfThreads = 8;
+        int additionsPerThread = 20_000;
+        cartService.addItem("RACE_PROD", 1);
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        CountDownLatch latch = new CountDownLatch(numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < additionsPerThread; j++) {
+                    cartService.addItem("RACE_PROD", 1);
+                }
+                latch.countDown();
+            });
+        }
+
+        // Every update replaces the quantity with 1 and returns the quantity it replaced
+        long replaced = 0;
+        int updates = 0;
+        while (latch.getCount() > 0) {
+            replaced += cartService.updateQuantity("RACE_PROD", 1).orElseThrow().quantity();
+            updates++;
+        }
+        latch.await();
+        executor.shutdown();
+
+        long added = 1L + (long) numberOfThreads * additionsPerThread;
+        assertThat(replaced + cartService.getTotalQuantity()).isEqualTo(added + updates);
+    }
+
     @Test
     @DisplayName("Should handle concurrent additions correctly")
     void addItem_shouldBeThreadSafe() throws InterruptedException {
@@ -0,0 +1,76 @@
+package com.example.legacysoap.service.expiry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the hierarchical timing wheel used by cart expiry
+ */
+@DisplayName("HierarchicalTimingWheel Tests")
+class HierarchicalTimingWheelTest {
+
+    @Test
+    @DisplayName("Should fire a timer in the tick of its deadline")
+    void advance_shouldFireDueTimers() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        wheel.schedule("A", 50);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(49, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(50, fired::add);
+        assertThat(fired).containsExactly("A");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should cascade timers from higher levels without firing early")
+    void advance_shouldCascadeLongTimers() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 3, 0);
+        long[] deadlines = {63, 64, 65, 4095, 4096, 4097, 100_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        for (long now = 1; now <= 100_000; now++) {
+            long current = now;
+            wheel.advance(current, deadline -> assertThat(deadline).isEqualTo(current));
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fire timers beyond the wheel span on time")
+    void advance_shouldHandleOverflowTimers() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 1, 0);
+        wheel.schedule("FAR", 200);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(199, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(200, fired::add);
+        assertThat(fired).containsExactly("FAR");
+    }
+
+    @Test
+    @DisplayName("Should not fire cancelled timers")
+    void cancel_shouldRemoveTimer() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 2, 0);
+        HierarchicalTimingWheel.Timer<String> timer = wheel.schedule("A", 10);
+        wheel.schedule("B", 10);
+
+        assertThat(wheel.cancel(timer)).isTrue();
+        assertThat(wheel.cancel(timer)).isFalse();
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(10, fired::add);
+        assertThat(fired).containsExactly("B");
+    }
+}